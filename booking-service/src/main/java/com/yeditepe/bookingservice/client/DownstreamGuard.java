@@ -0,0 +1,45 @@
+package com.yeditepe.bookingservice.client;
+
+import com.yeditepe.bookingservice.exception.DownstreamUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Runs a downstream call through that service's bulkhead and circuit breaker
+ * (configured under resilience4j.bulkhead / resilience4j.circuitbreaker, instance name
+ * = service name). Rejected calls fail fast with {@link DownstreamUnavailableException};
+ * errors from calls that did go out are rethrown unchanged.
+ */
+@Component
+@RequiredArgsConstructor
+public class DownstreamGuard {
+
+    private static final Duration BULKHEAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public <T> T call(String service, Supplier<T> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(service);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(service);
+        // Bulkhead outside the breaker: shedding load because we're saturated doesn't count as a service failure.
+        Supplier<T> guarded = Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, call));
+        try {
+            return guarded.get();
+        } catch (CallNotPermittedException ex) {
+            long waitMillis = circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1);
+            throw new DownstreamUnavailableException(service, "circuit breaker is open", Duration.ofMillis(waitMillis));
+        } catch (BulkheadFullException ex) {
+            throw new DownstreamUnavailableException(service, "too many concurrent calls", BULKHEAD_RETRY_AFTER);
+        }
+    }
+}
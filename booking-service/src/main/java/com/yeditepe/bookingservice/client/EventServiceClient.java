@@ -1,17 +1,46 @@
 package com.yeditepe.bookingservice.client;
 
 import com.yeditepe.bookingservice.dto.EventStockResponse;
+import com.yeditepe.bookingservice.dto.SeatRequest;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient(name = "event-service")
 public interface EventServiceClient {
     @GetMapping("/api/events/{id}/stock")
     EventStockResponse checkStock(@PathVariable("id") String eventId);
+    @PostMapping("/api/events/stock")
+    List<EventStockResponse> checkStock(@RequestBody List<String> eventIds);
     @PutMapping("/api/events/{id}/reserve")
     Boolean reserveSeat(@PathVariable("id") String eventId);
     @PutMapping("/api/events/{id}/release")
     Boolean releaseSeat(@PathVariable("id") String eventId);
+    @PutMapping("/api/events/{id}/reserve")
+    Boolean reserveSeats(@PathVariable("id") String eventId, @RequestParam("count") int count);
+    @PutMapping("/api/events/{id}/release")
+    Boolean releaseSeats(@PathVariable("id") String eventId, @RequestParam("count") int count);
+    @PutMapping("/api/events/{id}/reserve-up-to")
+    Integer reserveSeatsUpTo(@PathVariable("id") String eventId, @RequestParam("count") int count);
+    @PutMapping("/api/events/{id}/reservations")
+    List<Boolean> reserveSeats(@PathVariable("id") String eventId, @RequestBody List<String> reservationKeys);
+    @DeleteMapping("/api/events/{id}/reservations/{key}")
+    Integer cancelReservation(@PathVariable("id") String eventId, @PathVariable("key") String reservationKey);
+    @PutMapping("/api/events/reserve")
+    Boolean reserveSeats(@RequestBody List<SeatRequest> requests);
+    @PutMapping("/api/events/release")
+    Boolean releaseSeats(@RequestBody List<SeatRequest> requests);
+
+    // One seat under a key: sending it again is safe, and cancelReservation undoes it.
+    default Boolean reserveSeat(String eventId, String reservationKey) {
+        List<Boolean> reserved = reserveSeats(eventId, List.of(reservationKey));
+        return reserved != null && !reserved.isEmpty() && Boolean.TRUE.equals(reserved.get(0));
+    }
 }
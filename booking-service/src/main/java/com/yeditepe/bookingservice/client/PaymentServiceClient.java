@@ -3,12 +3,22 @@ package com.yeditepe.bookingservice.client;
 import com.yeditepe.bookingservice.dto.PaymentRequest;
 import com.yeditepe.bookingservice.dto.PaymentResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @FeignClient(name = "payment-service")
 public interface PaymentServiceClient {
     
     @PostMapping("/api/payments/process")
     PaymentResponse processPayment(@RequestBody PaymentRequest request);
+
+    @GetMapping("/api/payments/booking/{bookingId}")
+    List<PaymentResponse> getPaymentsByBooking(@PathVariable("bookingId") Long bookingId);
+
+    @PostMapping("/api/payments/{paymentId}/refund")
+    PaymentResponse refundPayment(@PathVariable("paymentId") Long paymentId);
 }
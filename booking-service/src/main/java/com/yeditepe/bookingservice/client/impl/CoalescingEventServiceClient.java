@@ -0,0 +1,200 @@
+package com.yeditepe.bookingservice.client.impl;
+
+import com.yeditepe.bookingservice.exception.DownstreamUnavailableException;
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.dto.EventStockResponse;
+import com.yeditepe.bookingservice.dto.SeatRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces keyed single-seat reservations for the same event into one
+ * {@code PUT /api/events/{id}/reservations} call carrying every caller's key. The first caller for
+ * an event opens a batch and waits up to booking.coalescer.window-ms (or until max-batch callers
+ * have joined), then sends the batch; event-service gives a seat to each key in order while seats
+ * last, so the first k get their seat and the rest see a sell-out.
+ *
+ * event-service answers a key it has seen before as it did the first time, so a batch whose reply
+ * was lost is sent once more as is. If that fails too, the callers get the error; each of them
+ * still owns its key and undoes whatever it got with cancelReservation.
+ * Every other call goes straight to {@link EventServiceClientImpl}.
+ */
+@Primary
+@Component
+public class CoalescingEventServiceClient implements EventServiceClient {
+
+    private final EventServiceClient delegate;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final DistributionSummary batchSizes;
+
+    private final Map<String, Batch> open = new ConcurrentHashMap<>();
+
+    public CoalescingEventServiceClient(@Qualifier("eventServiceClientImpl") EventServiceClient delegate,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${booking.coalescer.enabled:true}") boolean enabled,
+                                        @Value("${booking.coalescer.window-ms:2}") long windowMs,
+                                        @Value("${booking.coalescer.max-batch:50}") int maxBatch) {
+        this.delegate = delegate;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatch = Math.max(maxBatch, 1);
+        this.batchSizes = DistributionSummary.builder("booking.coalescer.batch.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Boolean reserveSeat(String eventId, String reservationKey) {
+        if (!enabled || maxBatch == 1) {
+            return delegate.reserveSeat(eventId, reservationKey);
+        }
+        Waiter result = new Waiter(reservationKey);
+        Batch[] joined = new Batch[1];
+        boolean[] leader = new boolean[1];
+        // Joining happens under the map's bin lock, so a batch can't gain callers once it is removed.
+        open.compute(eventId, (id, current) -> {
+            Batch batch = current != null ? current : new Batch();
+            batch.waiters.add(result);
+            joined[0] = batch;
+            leader[0] = current == null;
+            if (batch.waiters.size() >= maxBatch) {
+                batch.full.countDown();
+                return null;
+            }
+            return batch;
+        });
+
+        if (leader[0]) {
+            Batch batch = joined[0];
+            awaitWindow(batch);
+            open.remove(eventId, batch);
+            dispatch(eventId, batch.waiters);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            // Send what we have; the other callers are still waiting on this batch.
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(String eventId, List<Waiter> waiters) {
+        batchSizes.record(waiters.size());
+        List<String> keys = waiters.stream().map(waiter -> waiter.key).toList();
+        try {
+            List<Boolean> reserved = send(eventId, keys);
+            if (reserved == null || reserved.size() != keys.size()) {
+                throw new IllegalStateException("Expected " + keys.size() + " answers for event " + eventId);
+            }
+            for (int i = 0; i < waiters.size(); i++) {
+                waiters.get(i).complete(Boolean.TRUE.equals(reserved.get(i)));
+            }
+        } catch (RuntimeException ex) {
+            waiters.forEach(waiter -> waiter.completeExceptionally(ex));
+        }
+    }
+
+    // A failed call may still have been applied; the keys make sending it again safe.
+    private List<Boolean> send(String eventId, List<String> keys) {
+        try {
+            return delegate.reserveSeats(eventId, keys);
+        } catch (DownstreamUnavailableException ex) {
+            // Never sent.
+            throw ex;
+        } catch (RuntimeException ex) {
+            return delegate.reserveSeats(eventId, keys);
+        }
+    }
+
+    // Without a key a lost reply can't be told apart from a sell-out, so these are not batched.
+    @Override
+    public Boolean reserveSeat(String eventId) {
+        return delegate.reserveSeat(eventId);
+    }
+
+    @Override
+    public EventStockResponse checkStock(String eventId) {
+        return delegate.checkStock(eventId);
+    }
+
+    @Override
+    public List<EventStockResponse> checkStock(List<String> eventIds) {
+        return delegate.checkStock(eventIds);
+    }
+
+    @Override
+    public Boolean releaseSeat(String eventId) {
+        return delegate.releaseSeat(eventId);
+    }
+
+    @Override
+    public Boolean reserveSeats(String eventId, int count) {
+        return delegate.reserveSeats(eventId, count);
+    }
+
+    @Override
+    public Boolean releaseSeats(String eventId, int count) {
+        return delegate.releaseSeats(eventId, count);
+    }
+
+    @Override
+    public Integer reserveSeatsUpTo(String eventId, int count) {
+        return delegate.reserveSeatsUpTo(eventId, count);
+    }
+
+    @Override
+    public List<Boolean> reserveSeats(String eventId, List<String> reservationKeys) {
+        return delegate.reserveSeats(eventId, reservationKeys);
+    }
+
+    @Override
+    public Integer cancelReservation(String eventId, String reservationKey) {
+        return delegate.cancelReservation(eventId, reservationKey);
+    }
+
+    @Override
+    public Boolean reserveSeats(List<SeatRequest> requests) {
+        return delegate.reserveSeats(requests);
+    }
+
+    @Override
+    public Boolean releaseSeats(List<SeatRequest> requests) {
+        return delegate.releaseSeats(requests);
+    }
+
+    private static final class Batch {
+        final List<Waiter> waiters = new ArrayList<>();
+        final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    private static final class Waiter extends CompletableFuture<Boolean> {
+        final String key;
+
+        Waiter(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -1,53 +1,106 @@
 package com.yeditepe.bookingservice.client.impl;
 
+import com.yeditepe.bookingservice.client.DownstreamGuard;
 import com.yeditepe.bookingservice.client.EventServiceClient;
 import com.yeditepe.bookingservice.dto.EventStockResponse;
+import com.yeditepe.bookingservice.dto.SeatRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Component
 public class EventServiceClientImpl implements EventServiceClient {
 
+    private static final String SERVICE = "event-service";
+
     private final RestTemplate restTemplate;
+    private final DownstreamGuard guard;
 
     @Value("${services.event.base:http://localhost:8082}")
     private String eventBaseUrl;
 
-    public EventServiceClientImpl(RestTemplate restTemplate) {
+    public EventServiceClientImpl(@Qualifier("eventRestTemplate") RestTemplate restTemplate, DownstreamGuard guard) {
         this.restTemplate = restTemplate;
+        this.guard = guard;
     }
 
     @Override
     public EventStockResponse checkStock(String eventId) {
-        try {
-            return restTemplate.getForObject(eventBaseUrl + "/api/events/{id}/stock", EventStockResponse.class, eventId);
-        } catch (Exception ex) {
-            // Fallback for local testing when event-service is unavailable or protected
-            return new EventStockResponse(eventId, 999, true);
-        }
+        return guard.call(SERVICE, () ->
+                restTemplate.getForObject(eventBaseUrl + "/api/events/{id}/stock", EventStockResponse.class, eventId));
+    }
+
+    @Override
+    public List<EventStockResponse> checkStock(List<String> eventIds) {
+        EventStockResponse[] resp = guard.call(SERVICE, () ->
+                restTemplate.postForObject(eventBaseUrl + "/api/events/stock", eventIds, EventStockResponse[].class));
+        return resp != null ? Arrays.asList(resp) : List.of();
     }
 
     @Override
     public Boolean reserveSeat(String eventId) {
-        try {
-            ResponseEntity<Boolean> resp = restTemplate.exchange(eventBaseUrl + "/api/events/{id}/reserve", org.springframework.http.HttpMethod.PUT, HttpEntity.EMPTY, Boolean.class, eventId);
-            return resp.getBody();
-        } catch (Exception ex) {
-            return true;
-        }
+        return put("/api/events/{id}/reserve", HttpEntity.EMPTY, eventId);
     }
 
     @Override
     public Boolean releaseSeat(String eventId) {
-        try {
-            ResponseEntity<Boolean> resp = restTemplate.exchange(eventBaseUrl + "/api/events/{id}/release", org.springframework.http.HttpMethod.PUT, HttpEntity.EMPTY, Boolean.class, eventId);
-            return resp.getBody();
-        } catch (Exception ex) {
-            return true;
-        }
+        return put("/api/events/{id}/release", HttpEntity.EMPTY, eventId);
+    }
+
+    @Override
+    public Boolean reserveSeats(String eventId, int count) {
+        return put("/api/events/{id}/reserve?count={count}", HttpEntity.EMPTY, eventId, count);
+    }
+
+    @Override
+    public Boolean releaseSeats(String eventId, int count) {
+        return put("/api/events/{id}/release?count={count}", HttpEntity.EMPTY, eventId, count);
+    }
+
+    @Override
+    public Integer reserveSeatsUpTo(String eventId, int count) {
+        return guard.call(SERVICE, () -> restTemplate
+                .exchange(eventBaseUrl + "/api/events/{id}/reserve-up-to?count={count}", HttpMethod.PUT,
+                        HttpEntity.EMPTY, Integer.class, eventId, count)
+                .getBody());
+    }
+
+    @Override
+    public List<Boolean> reserveSeats(String eventId, List<String> reservationKeys) {
+        Boolean[] reserved = guard.call(SERVICE, () -> restTemplate
+                .exchange(eventBaseUrl + "/api/events/{id}/reservations", HttpMethod.PUT,
+                        new HttpEntity<>(reservationKeys), Boolean[].class, eventId)
+                .getBody());
+        return reserved != null ? Arrays.asList(reserved) : List.of();
+    }
+
+    @Override
+    public Integer cancelReservation(String eventId, String reservationKey) {
+        return guard.call(SERVICE, () -> restTemplate
+                .exchange(eventBaseUrl + "/api/events/{id}/reservations/{key}", HttpMethod.DELETE,
+                        HttpEntity.EMPTY, Integer.class, eventId, reservationKey)
+                .getBody());
+    }
+
+    @Override
+    public Boolean reserveSeats(List<SeatRequest> requests) {
+        return put("/api/events/reserve", new HttpEntity<>(requests));
+    }
+
+    @Override
+    public Boolean releaseSeats(List<SeatRequest> requests) {
+        return put("/api/events/release", new HttpEntity<>(requests));
+    }
+
+    private Boolean put(String path, HttpEntity<?> body, Object... uriVariables) {
+        return guard.call(SERVICE, () -> restTemplate
+                .exchange(eventBaseUrl + path, HttpMethod.PUT, body, Boolean.class, uriVariables)
+                .getBody());
     }
 }
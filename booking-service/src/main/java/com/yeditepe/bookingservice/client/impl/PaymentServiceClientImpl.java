@@ -1,26 +1,55 @@
 package com.yeditepe.bookingservice.client.impl;
 
+import com.yeditepe.bookingservice.client.DownstreamGuard;
 import com.yeditepe.bookingservice.client.PaymentServiceClient;
 import com.yeditepe.bookingservice.dto.PaymentRequest;
 import com.yeditepe.bookingservice.dto.PaymentResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Component
 public class PaymentServiceClientImpl implements PaymentServiceClient {
 
+    private static final String SERVICE = "payment-service";
+
     private final RestTemplate restTemplate;
+    private final DownstreamGuard guard;
 
     @Value("${services.payment.base:http://localhost:8084}")
     private String paymentBaseUrl;
 
-    public PaymentServiceClientImpl(RestTemplate restTemplate) {
+    public PaymentServiceClientImpl(@Qualifier("paymentRestTemplate") RestTemplate restTemplate, DownstreamGuard guard) {
         this.restTemplate = restTemplate;
+        this.guard = guard;
     }
 
+    // Keyed by booking id, so a retried call never charges the same booking twice.
     @Override
     public PaymentResponse processPayment(PaymentRequest request) {
-        return restTemplate.postForObject(paymentBaseUrl + "/api/payments/process", request, PaymentResponse.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "booking-" + request.getBookingId());
+        HttpEntity<PaymentRequest> entity = new HttpEntity<>(request, headers);
+        return guard.call(SERVICE, () ->
+                restTemplate.postForObject(paymentBaseUrl + "/api/payments/process", entity, PaymentResponse.class));
+    }
+
+    @Override
+    public List<PaymentResponse> getPaymentsByBooking(Long bookingId) {
+        PaymentResponse[] payments = guard.call(SERVICE, () -> restTemplate.getForObject(
+                paymentBaseUrl + "/api/payments/booking/{bookingId}", PaymentResponse[].class, bookingId));
+        return payments != null ? Arrays.asList(payments) : List.of();
+    }
+
+    @Override
+    public PaymentResponse refundPayment(Long paymentId) {
+        return guard.call(SERVICE, () -> restTemplate.postForObject(
+                paymentBaseUrl + "/api/payments/{paymentId}/refund", null, PaymentResponse.class, paymentId));
     }
 }
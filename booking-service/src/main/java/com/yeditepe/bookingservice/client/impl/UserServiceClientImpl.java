@@ -1,6 +1,8 @@
 package com.yeditepe.bookingservice.client.impl;
 
+import com.yeditepe.bookingservice.client.DownstreamGuard;
 import com.yeditepe.bookingservice.client.UserServiceClient;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -12,13 +14,17 @@ import org.springframework.web.client.RestTemplate;
 @Component
 public class UserServiceClientImpl implements UserServiceClient {
 
+    private static final String SERVICE = "user-service";
+
     private final RestTemplate restTemplate;
+    private final DownstreamGuard guard;
 
     @Value("${services.user.base:http://localhost:8081}")
     private String userBaseUrl;
 
-    public UserServiceClientImpl(RestTemplate restTemplate) {
+    public UserServiceClientImpl(@Qualifier("userRestTemplate") RestTemplate restTemplate, DownstreamGuard guard) {
         this.restTemplate = restTemplate;
+        this.guard = guard;
     }
 
     @Override
@@ -28,13 +34,13 @@ public class UserServiceClientImpl implements UserServiceClient {
             headers.set("Authorization", authorizationHeader);
         }
         HttpEntity<Void> entity = new HttpEntity<>(null, headers);
-        ResponseEntity<Boolean> resp = restTemplate.exchange(
+        ResponseEntity<Boolean> resp = guard.call(SERVICE, () -> restTemplate.exchange(
                 userBaseUrl + "/api/users/{id}/validate",
                 org.springframework.http.HttpMethod.GET,
                 entity,
                 Boolean.class,
                 userId
-        );
+        ));
         return resp.getBody();
     }
 }
@@ -0,0 +1,82 @@
+package com.yeditepe.bookingservice.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Runs the blocking steps of the booking pipeline (downstream HTTP calls, local writes)
+     * off the request thread. Bounded on both threads and queue; once full, the submitting
+     * thread runs the step itself, which throttles new bookings instead of dropping them.
+     */
+    @Bean(name = "bookingExecutor")
+    public ThreadPoolTaskExecutor bookingExecutor(
+            @Value("${booking.executor.core-size:16}") int coreSize,
+            @Value("${booking.executor.max-size:64}") int maxSize,
+            @Value("${booking.executor.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("booking-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(mdcPropagating());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Runs saga compensations and recovered sagas. Kept apart from the booking pipeline so
+     * compensations still make progress while new bookings saturate {@code bookingExecutor}.
+     */
+    @Bean(name = "sagaExecutor")
+    public ThreadPoolTaskExecutor sagaExecutor(
+            @Value("${booking.saga.executor.core-size:4}") int coreSize,
+            @Value("${booking.saga.executor.max-size:16}") int maxSize,
+            @Value("${booking.saga.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("saga-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(mdcPropagating());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Carries the correlation id (and the rest of the MDC) onto the worker thread.
+    private TaskDecorator mdcPropagating() {
+        return task -> {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            return () -> {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                if (context != null) {
+                    MDC.setContextMap(context);
+                } else {
+                    MDC.clear();
+                }
+                try {
+                    task.run();
+                } finally {
+                    if (previous != null) {
+                        MDC.setContextMap(previous);
+                    } else {
+                        MDC.clear();
+                    }
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.yeditepe.bookingservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings for the downstream HTTP clients, one entry per
+ * service under {@code booking.http.clients.<name>} (event, payment, user).
+ */
+@Data
+@ConfigurationProperties(prefix = "booking.http")
+public class HttpClientProperties {
+
+    // Upper bound on how long an idle pooled connection is kept open for reuse.
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    // Idle connections older than this are closed by the pool's background evictor.
+    private Duration evictIdleAfter = Duration.ofSeconds(30);
+
+    private Map<String, Client> clients = new HashMap<>();
+
+    public Client client(String name) {
+        return clients.getOrDefault(name, new Client());
+    }
+
+    @Data
+    public static class Client {
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(3);
+        // How long a caller waits for a free pooled connection before failing.
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+        private int maxConnections = 50;
+    }
+}
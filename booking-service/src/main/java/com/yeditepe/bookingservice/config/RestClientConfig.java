@@ -1,14 +1,77 @@
 package com.yeditepe.bookingservice.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * One pooled Apache HttpClient per downstream service, so a slow payment-service can only
+ * exhaust its own pool and never blocks calls to event-service or user-service.
+ */
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class RestClientConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate eventRestTemplate(RestTemplateBuilder builder, HttpClientProperties properties,
+                                          MeterRegistry meterRegistry) {
+        return build("event", builder, properties, meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate paymentRestTemplate(RestTemplateBuilder builder, HttpClientProperties properties,
+                                            MeterRegistry meterRegistry) {
+        return build("payment", builder, properties, meterRegistry);
+    }
+
+    @Bean
+    public RestTemplate userRestTemplate(RestTemplateBuilder builder, HttpClientProperties properties,
+                                         MeterRegistry meterRegistry) {
+        return build("user", builder, properties, meterRegistry);
+    }
+
+    private RestTemplate build(String name, RestTemplateBuilder builder, HttpClientProperties properties,
+                               MeterRegistry meterRegistry) {
+        HttpClientProperties.Client client = properties.client(name);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(client.getMaxConnections())
+                .setMaxConnPerRoute(client.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(client.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(client.getReadTimeout()))
+                        .build())
+                .build();
+        // httpcomponents.httpclient.pool.* gauges (leased, available, pending), tagged httpclient=<name>
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+
+        TimeValue keepAlive = TimeValue.of(properties.getKeepAlive());
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(client.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(client.getReadTimeout()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getEvictIdleAfter()))
+                .build();
+
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
     }
 }
@@ -1,12 +1,17 @@
 package com.yeditepe.bookingservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yeditepe.bookingservice.dto.BookingRequest;
 import com.yeditepe.bookingservice.dto.BookingResponse;
+import com.yeditepe.bookingservice.dto.CursorPage;
 import com.yeditepe.bookingservice.service.BookingService;
+import com.yeditepe.bookingservice.service.EventAdmissionGate;
+import com.yeditepe.bookingservice.service.IdempotencyStore;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,9 +19,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -24,15 +38,54 @@ import java.util.List;
 @Slf4j
 public class BookingController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final BookingService bookingService;
+    private final IdempotencyStore idempotencyStore;
+    private final EventAdmissionGate admissionGate;
+    private final ObjectMapper objectMapper;
 
+    // The request thread is released while the booking pipeline runs; the response is written on completion.
+    // mode=async only stores a PENDING booking and queues the rest: 202 with the booking's URL to poll.
+    // With an Idempotency-Key, retries and concurrent duplicates get the first request's booking.
+    // Every new booking first passes the per-event admission gate (429 + X-Queue-Ticket, or 409 when sold out).
     @PostMapping
-    public ResponseEntity<BookingResponse> createBooking(
+    public CompletableFuture<ResponseEntity<BookingResponse>> createBooking(
             @Valid @RequestBody BookingRequest request,
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-        log.info("Received booking request: {}", request);
-        BookingResponse response = bookingService.createBooking(request, authorizationHeader);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            @RequestParam(value = "mode", defaultValue = "sync") String mode,
+            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "X-Queue-Ticket", required = false) String queueTicket) {
+        log.info("Received booking request: {} (mode={})", request, mode);
+        boolean async = "async".equalsIgnoreCase(mode);
+        if (!async && !"sync".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("mode must be sync or async");
+        }
+        Supplier<CompletableFuture<BookingResponse>> action = () -> {
+            admissionGate.admit(request.getEventId(), queueTicket);
+            return async
+                    ? CompletableFuture.completedFuture(bookingService.acceptBooking(request, authorizationHeader))
+                    : bookingService.createBooking(request, authorizationHeader);
+        };
+        CompletableFuture<BookingResponse> booking = idempotencyKey == null
+                ? action.get()
+                : idempotencyStore.execute(idempotencyKey, mode.toLowerCase() + "|" + request, action);
+        return booking.thenApply(response -> async
+                ? ResponseEntity.accepted().location(URI.create("/api/bookings/" + response.getId())).body(response)
+                : ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<BookingResponse>> getBookingsPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return ResponseEntity.ok(bookingService.getBookingsPage(cursor, size));
+    }
+
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings() {
+        StreamingResponseBody body = out -> bookingService.streamAllBookings(ndjson(out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
     }
 
     @GetMapping("/{id}")
@@ -47,10 +100,42 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
 
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<CursorPage<BookingResponse>> getBookingsPageByUserId(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return ResponseEntity.ok(bookingService.getBookingsPageByUserId(userId, cursor, size));
+    }
+
     @GetMapping("/event/{eventId}")
     public ResponseEntity<List<BookingResponse>> getBookingsByEventId(@PathVariable String eventId) {
         List<BookingResponse> bookings = bookingService.getBookingsByEventId(eventId);
         return ResponseEntity.ok(bookings);
     }
-}
 
+    @GetMapping("/event/{eventId}/page")
+    public ResponseEntity<CursorPage<BookingResponse>> getBookingsPageByEventId(
+            @PathVariable("eventId") String eventId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return ResponseEntity.ok(bookingService.getBookingsPageByEventId(eventId, cursor, size));
+    }
+
+    @GetMapping(value = "/event/{eventId}/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookingsByEventId(@PathVariable("eventId") String eventId) {
+        StreamingResponseBody body = out -> bookingService.streamBookingsByEventId(eventId, ndjson(out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    private <T> Consumer<T> ndjson(OutputStream out) {
+        return item -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
+}
@@ -12,4 +12,6 @@ import java.math.BigDecimal;
 public class PaymentRequest {
     private Long bookingId;
     private BigDecimal amount;
+    // Name of a payment-service PaymentMethod; payment-service declines a request without one.
+    private String paymentMethod;
 }
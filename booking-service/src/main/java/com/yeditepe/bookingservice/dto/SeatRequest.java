@@ -0,0 +1,19 @@
+package com.yeditepe.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatRequest {
+    private String eventId;
+    private Integer count;
+    // Set on releases: event-service applies a key only once, so a retried release gives nothing back twice.
+    private String releaseKey;
+
+    public SeatRequest(String eventId, Integer count) {
+        this(eventId, count, null);
+    }
+}
@@ -7,7 +7,9 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,14 +18,22 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+// (user_id, id) and (event_id, id) serve the per-user/per-event lookups and their keyset pages;
+// (status, booking_date) serves findByStatus and the stale-PENDING scan.
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_bookings_event_id", columnList = "event_id, id"),
+        @Index(name = "idx_bookings_status_date", columnList = "status, booking_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Booking {
 
+    // Pooled sequence: one round trip per 50 ids, and inserts can be JDBC-batched (IDENTITY can't).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
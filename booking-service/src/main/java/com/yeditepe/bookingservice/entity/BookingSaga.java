@@ -0,0 +1,106 @@
+package com.yeditepe.bookingservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one booking through seat reservation, payment and confirmation, and of its
+ * compensation if it fails. Keyed by booking id; written after every step so a restarted
+ * instance knows what still has to be done or undone.
+ */
+@Entity
+@Table(name = "booking_sagas", indexes = @Index(name = "idx_booking_sagas_step_updated", columnList = "step, updated_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSaga {
+
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private SagaStep step;
+
+    // Cleared once the seat has been given back, so compensation never releases it twice.
+    @Column(name = "seat_reserved", nullable = false)
+    private boolean seatReserved;
+
+    // Set when a reserve under seatKey() may have gone through unseen (it failed mid-call, or the flow
+    // died around it); compensation then cancels the key, which gives back whatever it took.
+    @Column(name = "seat_requested", nullable = false)
+    private boolean seatRequested;
+
+    @Column(name = "payment_attempted", nullable = false)
+    private boolean paymentAttempted;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Worker, recovery and reaper all write this row; a save based on an outdated read fails instead of winning.
+    @Version
+    private Long version;
+
+    public BookingSaga(Long bookingId, String eventId) {
+        this(bookingId, eventId, SagaStep.STARTED);
+    }
+
+    public BookingSaga(Long bookingId, String eventId, SagaStep step) {
+        this.bookingId = bookingId;
+        this.eventId = eventId;
+        this.step = step;
+    }
+
+    // The seat is reserved, released and cancelled under this key, so whichever of worker, recovery
+    // or reaper undoes it, event-service gives the seat back once.
+    public String seatKey() {
+        return "booking-" + bookingId;
+    }
+
+    public boolean isFinished() {
+        return step == SagaStep.CONFIRMED || step == SagaStep.COMPENSATED;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,34 @@
+package com.yeditepe.bookingservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-limited ownership of one slice of the bookings table (ids with the same
+ * MOD(id, partitions)) for the stale-booking reaper. An instance only reaps the slices it
+ * holds; a lease that runs out can be taken over by any other instance.
+ */
+@Entity
+@Table(name = "reaper_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReaperLease {
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private LocalDateTime leaseUntil;
+}
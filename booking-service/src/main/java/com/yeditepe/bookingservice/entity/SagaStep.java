@@ -0,0 +1,13 @@
+package com.yeditepe.bookingservice.entity;
+
+public enum SagaStep {
+    // Accepted in async mode and waiting in the work queue; no worker has picked it up yet.
+    QUEUED,
+    STARTED,
+    SEAT_RESERVED,
+    PAYMENT_ATTEMPTED,
+    PAID,
+    CONFIRMED,
+    COMPENSATING,
+    COMPENSATED
+}
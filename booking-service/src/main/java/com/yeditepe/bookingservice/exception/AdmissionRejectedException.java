@@ -0,0 +1,55 @@
+package com.yeditepe.bookingservice.exception;
+
+import java.time.Duration;
+
+/**
+ * The admission gate turned a booking away before any work was done. Sold-out rejections
+ * map to 409; rate rejections map to 429 and may carry a queue ticket for a later slot.
+ * Both carry a Retry-After.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final String eventId;
+    private final Duration retryAfter;
+    private final String ticket;
+    private final boolean soldOut;
+
+    private AdmissionRejectedException(String message, String eventId, Duration retryAfter,
+                                       String ticket, boolean soldOut) {
+        super(message);
+        this.eventId = eventId;
+        this.retryAfter = retryAfter;
+        this.ticket = ticket;
+        this.soldOut = soldOut;
+    }
+
+    public static AdmissionRejectedException soldOut(String eventId, Duration retryAfter) {
+        return new AdmissionRejectedException("Event " + eventId + " is sold out", eventId, retryAfter, null, true);
+    }
+
+    public static AdmissionRejectedException queued(String eventId, Duration retryAfter, String ticket) {
+        return new AdmissionRejectedException("Event " + eventId + " is busy; retry with the queue ticket",
+                eventId, retryAfter, ticket, false);
+    }
+
+    public static AdmissionRejectedException overloaded(String eventId, Duration retryAfter) {
+        return new AdmissionRejectedException("Event " + eventId + " waiting room is full", eventId, retryAfter,
+                null, false);
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public String getTicket() {
+        return ticket;
+    }
+
+    public boolean isSoldOut() {
+        return soldOut;
+    }
+}
@@ -0,0 +1,20 @@
+package com.yeditepe.bookingservice.exception;
+
+import java.time.Duration;
+
+/**
+ * The async booking queue is at capacity. Mapped to 503 with a Retry-After header.
+ */
+public class BookingQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public BookingQueueFullException(Duration retryAfter) {
+        super("Booking queue is full, try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,27 @@
+package com.yeditepe.bookingservice.exception;
+
+import java.time.Duration;
+
+/**
+ * A downstream service is refusing calls right now (breaker open or bulkhead full).
+ * Mapped to 503 with a Retry-After header instead of a made-up fallback answer.
+ */
+public class DownstreamUnavailableException extends RuntimeException {
+
+    private final String service;
+    private final Duration retryAfter;
+
+    public DownstreamUnavailableException(String service, String reason, Duration retryAfter) {
+        super(service + " unavailable: " + reason);
+        this.service = service;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
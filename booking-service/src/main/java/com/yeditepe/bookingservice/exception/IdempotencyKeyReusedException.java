@@ -0,0 +1,12 @@
+package com.yeditepe.bookingservice.exception;
+
+/**
+ * An Idempotency-Key was sent again with a different request body. Mapped to 422 so the
+ * client learns about the bug instead of silently getting the first request's response.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency-Key " + key + " was already used with a different request");
+    }
+}
@@ -1,12 +1,21 @@
 package com.yeditepe.bookingservice.messaging;
 
 import com.yeditepe.bookingservice.config.RabbitMQConfig;
+import com.yeditepe.bookingservice.entity.OutboxEvent;
 import com.yeditepe.bookingservice.event.BookingCreatedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -19,4 +28,30 @@ public class BookingEventPublisher {
         rabbitTemplate.convertAndSend(RabbitMQConfig.BOOKING_QUEUE, event);
         log.info("Booking created event published successfully");
     }
+
+    /**
+     * Sends the outbox rows on one channel and waits for the broker to confirm all of them.
+     * Throws if any message is nacked or the confirms don't arrive within the timeout.
+     * Requires spring.rabbitmq.publisher-confirm-type=simple.
+     */
+    public void publishConfirmed(List<OutboxEvent> events, Duration confirmTimeout) {
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEvent event : events) {
+                operations.send("", event.getDestination(), toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+            return null;
+        });
+    }
+
+    // Payload is already JSON; the outbox id doubles as message id so consumers can drop redeliveries.
+    private Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setMessageId(String.valueOf(event.getId()))
+                .setType(event.getEventType())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .build();
+    }
 }
@@ -0,0 +1,59 @@
+package com.yeditepe.bookingservice.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yeditepe.bookingservice.config.RabbitMQConfig;
+import com.yeditepe.bookingservice.entity.Booking;
+import com.yeditepe.bookingservice.entity.OutboxEvent;
+import com.yeditepe.bookingservice.event.BookingCreatedEvent;
+import com.yeditepe.bookingservice.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records booking events in the outbox table. Must be called inside the transaction that
+ * writes the booking, so the message exists if and only if the booking change committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingOutbox {
+
+    public static final String BOOKING_CREATED = "BookingCreated";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${booking.outbox.enabled:false}")
+    private boolean enabled;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bookingCreated(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        BookingCreatedEvent event = new BookingCreatedEvent(
+                booking.getId(),
+                booking.getUserId(),
+                booking.getEventId(),
+                booking.getStatus().name(),
+                booking.getBookingDate()
+        );
+        OutboxEvent row = new OutboxEvent();
+        row.setAggregateId(String.valueOf(booking.getId()));
+        row.setEventType(BOOKING_CREATED);
+        row.setDestination(RabbitMQConfig.BOOKING_QUEUE);
+        row.setPayload(toJson(event));
+        outboxEventRepository.save(row);
+    }
+
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize outbox event", ex);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.yeditepe.bookingservice.messaging;
+
+import com.yeditepe.bookingservice.entity.OutboxEvent;
+import com.yeditepe.bookingservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox: reads the oldest rows in batches, publishes them with publisher
+ * confirms and deletes them only after the broker has acknowledged the whole batch.
+ * Delivery is at-least-once; a crash between confirm and delete re-sends that batch.
+ *
+ * Each batch is claimed with a conditional update before it is published, so several
+ * instances relay side by side without sending the same rows. A claim runs out after
+ * claim-seconds, after which a row a crashed relay was holding is sent by someone else.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BookingEventPublisher publisher;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+    private final Duration claimDuration;
+    private final String owner;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter published;
+    private final Counter failures;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       BookingEventPublisher publisher,
+                       MeterRegistry meterRegistry,
+                       @Value("${booking.outbox.enabled:false}") boolean enabled,
+                       @Value("${booking.outbox.batch-size:100}") int batchSize,
+                       @Value("${spring.application.name:booking-service}") String applicationName,
+                       @Value("${booking.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                       @Value("${booking.outbox.claim-seconds:30}") long claimSeconds) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.publisher = publisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.confirmTimeout = Duration.ofMillis(confirmTimeoutMs);
+        this.claimDuration = Duration.ofSeconds(claimSeconds);
+        this.owner = applicationName + ":" + UUID.randomUUID();
+
+        // Age of the oldest unpublished message as of the last relay pass.
+        Gauge.builder("booking.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.published = Counter.builder("booking.outbox.published").register(meterRegistry);
+        this.failures = Counter.builder("booking.outbox.publish.failures").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> ids = List.of();
+        try {
+            do {
+                LocalDateTime now = LocalDateTime.now();
+                ids = outboxEventRepository.findClaimableIds(now, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                outboxEventRepository.claim(ids, owner, now, now.plus(claimDuration));
+                // Rows another instance claimed between our read and our claim are its to send.
+                List<OutboxEvent> batch = outboxEventRepository.findByClaimedByAndIdInOrderByIdAsc(owner, ids);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                publisher.publishConfirmed(batch, confirmTimeout);
+                outboxEventRepository.deleteAllByIdInBatch(
+                        batch.stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+                published.increment(batch.size());
+            } while (ids.size() == batchSize);
+        } catch (RuntimeException ex) {
+            // Rows stay in the outbox; the claim is dropped so the next pass (here or elsewhere) retries them.
+            failures.increment();
+            log.warn("Outbox relay pass failed: {}", ex.getMessage());
+            unclaim(ids);
+        } finally {
+            updateLag();
+        }
+    }
+
+    private void unclaim(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            outboxEventRepository.unclaim(ids, owner);
+        } catch (RuntimeException ex) {
+            log.warn("Could not drop outbox claim, it runs out by itself: {}", ex.getMessage());
+        }
+    }
+
+    private void updateLag() {
+        lagMillis.set(outboxEventRepository.findFirstByOrderByIdAsc()
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+}
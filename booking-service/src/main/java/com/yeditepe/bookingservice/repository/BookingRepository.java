@@ -1,10 +1,22 @@
 package com.yeditepe.bookingservice.repository;
 
 import com.yeditepe.bookingservice.entity.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import com.yeditepe.bookingservice.entity.BookingStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -15,4 +27,37 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByStatus(com.yeditepe.bookingservice.entity.BookingStatus status);
 
     List<Booking> findByUserIdAndStatus(Long userId, com.yeditepe.bookingservice.entity.BookingStatus status);
-}
\ No newline at end of file
+
+    // Keyset pages: callers pass the last id they saw and a Pageable sorted by id (no count query for List results)
+    List<Booking> findByIdGreaterThan(Long afterId, Pageable pageable);
+
+    List<Booking> findByUserIdAndIdGreaterThan(Long userId, Long afterId, Pageable pageable);
+
+    List<Booking> findByEventIdAndIdGreaterThan(String eventId, Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Booking b ORDER BY b.id")
+    Stream<Booking> streamAll();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT b FROM Booking b WHERE b.eventId = :eventId ORDER BY b.id")
+    Stream<Booking> streamByEventId(@Param("eventId") String eventId);
+
+    // Moves a booking between states only if it is still in the expected one; returns 0 if someone got there first.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to WHERE b.id = :id AND b.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") BookingStatus from, @Param("to") BookingStatus to);
+
+    // Oldest bookings still in the given status, restricted to the given MOD(id, partitions) slices.
+    // Bookings whose saga is already compensating are left to saga recovery.
+    @Query("SELECT b FROM Booking b WHERE b.status = :status AND b.bookingDate < :cutoff " +
+            "AND MOD(b.id, :partitions) IN :owned " +
+            "AND NOT EXISTS (SELECT s FROM BookingSaga s WHERE s.bookingId = b.id " +
+            "AND s.step = com.yeditepe.bookingservice.entity.SagaStep.COMPENSATING) ORDER BY b.bookingDate")
+    List<Booking> findStale(@Param("status") BookingStatus status,
+                            @Param("cutoff") LocalDateTime cutoff,
+                            @Param("partitions") int partitions,
+                            @Param("owned") Collection<Integer> owned,
+                            Pageable pageable);
+}
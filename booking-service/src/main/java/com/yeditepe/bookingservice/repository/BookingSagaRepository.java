@@ -0,0 +1,40 @@
+package com.yeditepe.bookingservice.repository;
+
+import com.yeditepe.bookingservice.entity.BookingSaga;
+import com.yeditepe.bookingservice.entity.SagaStep;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookingSagaRepository extends JpaRepository<BookingSaga, Long> {
+
+    // Unfinished sagas nobody has touched since the cutoff, queued ones only after the (longer) queued
+    // cutoff, plus compensations whose retry is due.
+    @Query("SELECT s FROM BookingSaga s WHERE (s.step IN :inFlight AND s.updatedAt < :staleBefore) " +
+            "OR (s.step = com.yeditepe.bookingservice.entity.SagaStep.QUEUED AND s.updatedAt < :queuedStaleBefore) " +
+            "OR (s.step = com.yeditepe.bookingservice.entity.SagaStep.COMPENSATING " +
+            "AND (s.nextAttemptAt IS NULL OR s.nextAttemptAt <= :now) AND s.updatedAt < :now) " +
+            "ORDER BY s.updatedAt")
+    List<BookingSaga> findRecoverable(@Param("inFlight") Collection<SagaStep> inFlight,
+                                      @Param("staleBefore") LocalDateTime staleBefore,
+                                      @Param("queuedStaleBefore") LocalDateTime queuedStaleBefore,
+                                      @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+
+    // Claims a saga for recovery: only one caller (thread or instance) sees the row it read. The version
+    // bump makes any save still based on the old row (e.g. the worker's) fail; reload after claiming.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BookingSaga s SET s.updatedAt = :now, s.version = s.version + 1 " +
+            "WHERE s.bookingId = :id AND s.updatedAt = :seen")
+    int claim(@Param("id") Long bookingId, @Param("seen") LocalDateTime seen, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,40 @@
+package com.yeditepe.bookingservice.repository;
+
+import com.yeditepe.bookingservice.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest rows no relay holds a live claim on, so messages go out in the order they were written.
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.claimedUntil IS NULL OR e.claimedUntil < :now ORDER BY e.id")
+    List<Long> findClaimableIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Conditional per row: of several instances racing for the same rows, each row goes to one of them.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.claimedBy = :owner, e.claimedUntil = :until " +
+            "WHERE e.id IN :ids AND (e.claimedUntil IS NULL OR e.claimedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.claimedBy = NULL, e.claimedUntil = NULL WHERE e.id IN :ids AND e.claimedBy = :owner")
+    int unclaim(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    List<OutboxEvent> findByClaimedByAndIdInOrderByIdAsc(String claimedBy, Collection<Long> ids);
+
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+}
@@ -0,0 +1,28 @@
+package com.yeditepe.bookingservice.repository;
+
+import com.yeditepe.bookingservice.entity.ReaperLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReaperLeaseRepository extends JpaRepository<ReaperLease, Integer> {
+
+    // Takes the lease if it is free or expired, or extends it if we already hold it; 1 on success.
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReaperLease l SET l.owner = :owner, l.leaseUntil = :until " +
+            "WHERE l.partitionId = :partition AND (l.owner = :owner OR l.owner IS NULL OR l.leaseUntil < :now)")
+    int acquire(@Param("partition") int partition, @Param("owner") String owner,
+                @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ReaperLease l SET l.owner = NULL WHERE l.owner = :owner")
+    int releaseAll(@Param("owner") String owner);
+}
@@ -0,0 +1,399 @@
+package com.yeditepe.bookingservice.service;
+
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.client.PaymentServiceClient;
+import com.yeditepe.bookingservice.dto.PaymentRequest;
+import com.yeditepe.bookingservice.dto.PaymentResponse;
+import com.yeditepe.bookingservice.dto.SeatRequest;
+import com.yeditepe.bookingservice.entity.Booking;
+import com.yeditepe.bookingservice.entity.BookingSaga;
+import com.yeditepe.bookingservice.entity.BookingStatus;
+import com.yeditepe.bookingservice.entity.SagaStep;
+import com.yeditepe.bookingservice.exception.DownstreamUnavailableException;
+import com.yeditepe.bookingservice.messaging.BookingOutbox;
+import com.yeditepe.bookingservice.repository.BookingRepository;
+import com.yeditepe.bookingservice.repository.BookingSagaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Drives a booking through seat reservation, payment and confirmation as a saga persisted in
+ * booking_sagas. Each step is recorded as it completes; when a step fails the booking is
+ * compensated on {@code sagaExecutor} (release the seat, refund any completed payment,
+ * cancel the booking) while the caller gets the original error right away.
+ *
+ * A recovery scan picks up sagas left unfinished by a crash or restart and compensations
+ * whose retry is due. Rows are claimed with a conditional update, so several instances can
+ * scan at once without running the same saga twice, and the saga's version makes a worker
+ * that still holds an older copy fail its next save rather than overwrite the recovery.
+ * Sagas still waiting in the async work queue are only recovered after queued-stale-after.
+ * A compensation owns its saga for compensation-lease: the lease is written (and the version
+ * checked) before any undo call goes out, so recovery neither starts a second one meanwhile nor
+ * lets a stale copy release the seat; the seat goes out under the booking's release key besides.
+ */
+@Component
+@Slf4j
+public class BookingSagaOrchestrator {
+
+    private static final List<SagaStep> IN_FLIGHT =
+            List.of(SagaStep.STARTED, SagaStep.SEAT_RESERVED, SagaStep.PAYMENT_ATTEMPTED, SagaStep.PAID);
+    private static final List<String> UNSETTLED_PAYMENTS = List.of("PENDING", "SUBMITTING", "UNKNOWN");
+    private static final BigDecimal BOOKING_PRICE = BigDecimal.valueOf(100.0);
+    private static final String PAYMENT_METHOD = "CREDIT_CARD";
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final BookingRepository bookingRepository;
+    private final BookingSagaRepository sagaRepository;
+    private final EventServiceClient eventServiceClient;
+    private final PaymentServiceClient paymentServiceClient;
+    private final BookingOutbox bookingOutbox;
+    private final EventAdmissionGate admissionGate;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor sagaExecutor;
+    private final Duration staleAfter;
+    private final Duration queuedStaleAfter;
+    private final int recoveryBatchSize;
+    private final long maxBackoffSeconds;
+    private final Duration compensationLease;
+
+    private final Counter compensated;
+    private final Counter compensationFailures;
+    private final Counter recovered;
+
+    public BookingSagaOrchestrator(BookingRepository bookingRepository,
+                                   BookingSagaRepository sagaRepository,
+                                   EventServiceClient eventServiceClient,
+                                   PaymentServiceClient paymentServiceClient,
+                                   BookingOutbox bookingOutbox,
+                                   EventAdmissionGate admissionGate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Qualifier("sagaExecutor") Executor sagaExecutor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${booking.saga.stale-after-seconds:120}") long staleAfterSeconds,
+                                   @Value("${booking.saga.queued-stale-after-seconds:1800}") long queuedStaleAfterSeconds,
+                                   @Value("${booking.saga.recovery-batch-size:200}") int recoveryBatchSize,
+                                   @Value("${booking.saga.max-backoff-seconds:300}") long maxBackoffSeconds,
+                                   @Value("${booking.saga.compensation-lease-seconds:60}") long compensationLeaseSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.sagaRepository = sagaRepository;
+        this.eventServiceClient = eventServiceClient;
+        this.paymentServiceClient = paymentServiceClient;
+        this.bookingOutbox = bookingOutbox;
+        this.admissionGate = admissionGate;
+        this.transactionTemplate = transactionTemplate;
+        this.sagaExecutor = sagaExecutor;
+        this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+        this.queuedStaleAfter = Duration.ofSeconds(queuedStaleAfterSeconds);
+        this.recoveryBatchSize = recoveryBatchSize;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.compensationLease = Duration.ofSeconds(compensationLeaseSeconds);
+
+        this.compensated = Counter.builder("booking.saga.compensated").register(meterRegistry);
+        this.compensationFailures = Counter.builder("booking.saga.compensation.failures").register(meterRegistry);
+        this.recovered = Counter.builder("booking.saga.recovered").register(meterRegistry);
+    }
+
+    // The PENDING booking and its saga are created together, so every booking row has a saga.
+    public Booking begin(Long userId, String eventId) {
+        return create(userId, eventId, SagaStep.STARTED);
+    }
+
+    // Async mode: the saga stays QUEUED, out of the regular stale scan, until a worker runs execute().
+    public Booking beginQueued(Long userId, String eventId) {
+        return create(userId, eventId, SagaStep.QUEUED);
+    }
+
+    private Booking create(Long userId, String eventId, SagaStep step) {
+        return transactionTemplate.execute(status -> {
+            Booking booking = new Booking();
+            booking.setUserId(userId);
+            booking.setEventId(eventId);
+            booking.setStatus(BookingStatus.PENDING);
+            booking.setBookingDate(LocalDateTime.now());
+            Booking saved = bookingRepository.save(booking);
+            sagaRepository.save(new BookingSaga(saved.getId(), eventId, step));
+            log.info("Booking created with ID: {}", saved.getId());
+            return saved;
+        });
+    }
+
+    /**
+     * Runs the forward steps on the calling thread and returns the confirmed booking. On
+     * failure the compensation is queued and the original exception is rethrown.
+     */
+    public Booking execute(Booking booking) {
+        BookingSaga saga = sagaRepository.findById(booking.getId())
+                .orElseThrow(() -> new IllegalStateException("No saga for booking " + booking.getId()));
+        if (saga.getStep() == SagaStep.QUEUED) {
+            // Picked up by a worker: from now on the regular stale-after applies.
+            saga.setStep(SagaStep.STARTED);
+            try {
+                saga = sagaRepository.save(saga);
+            } catch (OptimisticLockingFailureException e) {
+                throw new IllegalStateException("Booking " + booking.getId() + " was taken over by recovery");
+            }
+        } else if (saga.getStep() != SagaStep.STARTED) {
+            // The recovery scan or the reaper got to it first.
+            throw new IllegalStateException("Booking " + booking.getId() + " is already " + saga.getStep());
+        }
+        try {
+            saga = reserveSeat(saga);
+            saga = recordPaymentAttempt(saga);
+            saga = pay(saga);
+            return confirm(saga, booking);
+        } catch (OptimisticLockingFailureException e) {
+            // Recovery claimed the saga meanwhile and now owns its compensation.
+            log.warn("Saga for booking {} was taken over by recovery", booking.getId());
+            throw e;
+        } catch (RuntimeException e) {
+            compensateAsync(saga, e.getMessage());
+            throw e;
+        }
+    }
+
+    // Gives up on a booking before any step ran, e.g. when user validation failed.
+    public void abort(Long bookingId, String reason) {
+        sagaRepository.findById(bookingId).ifPresent(saga -> compensateAsync(saga, reason));
+    }
+
+    // Removes a booking that was never started (its work could not be queued).
+    public void discard(Long bookingId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            sagaRepository.deleteById(bookingId);
+            bookingRepository.deleteById(bookingId);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${booking.saga.recovery-interval-ms:10000}")
+    public void recover() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingSaga> due = sagaRepository.findRecoverable(
+                IN_FLIGHT, now.minus(staleAfter), now.minus(queuedStaleAfter), now, PageRequest.of(0, recoveryBatchSize));
+        for (BookingSaga saga : due) {
+            if (sagaRepository.claim(saga.getBookingId(), saga.getUpdatedAt(), LocalDateTime.now()) == 1) {
+                recovered.increment();
+                submit(() -> resume(saga.getBookingId()));
+            }
+        }
+        if (!due.isEmpty()) {
+            log.info("Saga recovery picked up {} sagas", due.size());
+        }
+    }
+
+    private void resume(Long bookingId) {
+        BookingSaga saga = sagaRepository.findById(bookingId).orElse(null);
+        if (saga == null || saga.isFinished()) {
+            return;
+        }
+        log.info("Resuming saga for booking {} at step {}", bookingId, saga.getStep());
+        try {
+            switch (saga.getStep()) {
+                case QUEUED -> compensate(startCompensation(saga, "Never picked up from the work queue"));
+                case STARTED -> {
+                    // The reserve may have gone through; cancelling its key gives back exactly what it took.
+                    saga.setSeatRequested(true);
+                    compensate(startCompensation(saga, "Interrupted before the seat was reserved"));
+                }
+                case SEAT_RESERVED -> confirm(pay(recordPaymentAttempt(saga)), loadBooking(bookingId));
+                case PAYMENT_ATTEMPTED -> {
+                    BookingSaga paid = findCompletedPayment(saga);
+                    if (paid == null) {
+                        compensate(startCompensation(saga, "Interrupted during payment"));
+                    } else {
+                        confirm(paid, loadBooking(bookingId));
+                    }
+                }
+                case PAID -> confirm(saga, loadBooking(bookingId));
+                case COMPENSATING -> compensate(saga);
+                default -> { }
+            }
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Resumed saga for booking {} was changed concurrently, leaving it to the next scan", bookingId);
+        } catch (RuntimeException e) {
+            log.warn("Resumed saga for booking {} failed: {}", bookingId, e.getMessage());
+            BookingSaga current = sagaRepository.findById(bookingId).orElse(saga);
+            if (!current.isFinished()) {
+                compensate(current.getStep() == SagaStep.COMPENSATING ? current : startCompensation(current, e.getMessage()));
+            }
+        }
+    }
+
+    private BookingSaga reserveSeat(BookingSaga saga) {
+        Boolean reserved;
+        try {
+            reserved = eventServiceClient.reserveSeat(saga.getEventId(), saga.seatKey());
+        } catch (DownstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            // Timed out or failed after it was sent: event-service may have applied it.
+            saga.setSeatRequested(true);
+            log.error("Seat reservation failed: {}", e.getMessage());
+            throw new RuntimeException("Failed to reserve seat");
+        }
+        if (!Boolean.TRUE.equals(reserved)) {
+            admissionGate.markSoldOut(saga.getEventId());
+            throw new RuntimeException("Seat reservation failed");
+        }
+        saga.setSeatReserved(true);
+        saga.setStep(SagaStep.SEAT_RESERVED);
+        return sagaRepository.save(saga);
+    }
+
+    // Recorded before the call: after a crash we then know a charge may exist and check for it.
+    // Kept apart from pay() so a failed charge is compensated from the saved (current-version) copy.
+    private BookingSaga recordPaymentAttempt(BookingSaga saga) {
+        saga.setPaymentAttempted(true);
+        saga.setStep(SagaStep.PAYMENT_ATTEMPTED);
+        return sagaRepository.save(saga);
+    }
+
+    private BookingSaga pay(BookingSaga saga) {
+        PaymentResponse payment;
+        try {
+            payment = paymentServiceClient.processPayment(new PaymentRequest(saga.getBookingId(), BOOKING_PRICE, PAYMENT_METHOD));
+        } catch (DownstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Payment processing failed for booking {}: {}", saga.getBookingId(), e.getMessage());
+            throw new RuntimeException("Payment service unavailable");
+        }
+        if (payment == null || !"COMPLETED".equals(payment.getStatus())) {
+            throw new RuntimeException("Payment failed: " + (payment != null ? payment.getStatus() : "no response"));
+        }
+        saga.setPaymentId(payment.getId());
+        saga.setStep(SagaStep.PAID);
+        return sagaRepository.save(saga);
+    }
+
+    private BookingSaga findCompletedPayment(BookingSaga saga) {
+        for (PaymentResponse payment : paymentServiceClient.getPaymentsByBooking(saga.getBookingId())) {
+            if ("COMPLETED".equals(payment.getStatus())) {
+                saga.setPaymentId(payment.getId());
+                saga.setStep(SagaStep.PAID);
+                return sagaRepository.save(saga);
+            }
+        }
+        return null;
+    }
+
+    // Booking status, outbox message and saga step commit together; a booking cancelled meanwhile is not confirmed.
+    private Booking confirm(BookingSaga saga, Booking booking) {
+        Booking confirmed = transactionTemplate.execute(status -> {
+            if (bookingRepository.transitionStatus(booking.getId(), BookingStatus.PENDING, BookingStatus.CONFIRMED) == 0) {
+                throw new IllegalStateException("Booking " + booking.getId() + " is no longer pending");
+            }
+            booking.setStatus(BookingStatus.CONFIRMED);
+            bookingOutbox.bookingCreated(booking);
+            saga.setStep(SagaStep.CONFIRMED);
+            sagaRepository.save(saga);
+            return booking;
+        });
+        log.info("Booking confirmed successfully: {}", booking.getId());
+        return confirmed;
+    }
+
+    private void compensateAsync(BookingSaga saga, String reason) {
+        BookingSaga compensating = startCompensation(saga, reason);
+        submit(() -> compensate(compensating));
+    }
+
+    // Leased right away: the compensation that follows (possibly still queued) is not picked up by recovery.
+    private BookingSaga startCompensation(BookingSaga saga, String reason) {
+        log.warn("Compensating booking {}: {}", saga.getBookingId(), reason);
+        saga.setStep(SagaStep.COMPENSATING);
+        saga.setLastError(truncate(reason));
+        saga.setNextAttemptAt(LocalDateTime.now().plus(compensationLease));
+        return sagaRepository.save(saga);
+    }
+
+    // Each undo is recorded as it succeeds, so a retried compensation only does what is left.
+    private void compensate(BookingSaga saga) {
+        try {
+            // Take the row before any side effect: a copy someone else has moved on fails here, not after the release.
+            saga.setNextAttemptAt(LocalDateTime.now().plus(compensationLease));
+            saga = sagaRepository.save(saga);
+            if (saga.isSeatReserved()) {
+                eventServiceClient.releaseSeats(List.of(new SeatRequest(saga.getEventId(), 1, saga.seatKey())));
+                saga.setSeatReserved(false);
+                saga = sagaRepository.save(saga);
+            }
+            if (saga.isSeatRequested()) {
+                eventServiceClient.cancelReservation(saga.getEventId(), saga.seatKey());
+                saga.setSeatRequested(false);
+                saga = sagaRepository.save(saga);
+            }
+            if (saga.isPaymentAttempted()) {
+                // The charge may have gone through even if we never saw the response.
+                List<PaymentResponse> payments = paymentServiceClient.getPaymentsByBooking(saga.getBookingId());
+                for (PaymentResponse payment : payments) {
+                    if (UNSETTLED_PAYMENTS.contains(payment.getStatus())) {
+                        // Its outcome is still being reconciled; retried with backoff until it is known.
+                        throw new IllegalStateException("Payment " + payment.getId() + " is still " + payment.getStatus());
+                    }
+                }
+                for (PaymentResponse payment : payments) {
+                    if ("COMPLETED".equals(payment.getStatus())) {
+                        paymentServiceClient.refundPayment(payment.getId());
+                    }
+                }
+                saga.setPaymentAttempted(false);
+                saga = sagaRepository.save(saga);
+            }
+            bookingRepository.transitionStatus(saga.getBookingId(), BookingStatus.PENDING, BookingStatus.CANCELLED);
+            saga.setStep(SagaStep.COMPENSATED);
+            saga.setNextAttemptAt(null);
+            sagaRepository.save(saga);
+            compensated.increment();
+            log.info("Booking {} compensated", saga.getBookingId());
+        } catch (OptimisticLockingFailureException e) {
+            // Someone else (recovery or the reaper) moved the saga on; they finish the compensation.
+            log.warn("Compensation of booking {} superseded: {}", saga.getBookingId(), e.getMessage());
+        } catch (RuntimeException e) {
+            compensationFailures.increment();
+            int attempts = saga.getAttempts() + 1;
+            long backoff = Math.min(maxBackoffSeconds, 1L << Math.min(attempts, 20));
+            saga.setAttempts(attempts);
+            saga.setLastError(truncate(e.getMessage()));
+            saga.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+            sagaRepository.save(saga);
+            log.warn("Compensation of booking {} failed (attempt {}), retrying in {} s: {}",
+                    saga.getBookingId(), attempts, backoff, e.getMessage());
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            sagaExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the recovery scan picks the saga up on the next start.
+            log.warn("Saga task rejected: {}", e.getMessage());
+        }
+    }
+
+    private Booking loadBooking(Long bookingId) {
+        return bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found with id: " + bookingId));
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
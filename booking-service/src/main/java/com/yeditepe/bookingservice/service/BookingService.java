@@ -1,134 +1,139 @@
 package com.yeditepe.bookingservice.service;
 
 import com.yeditepe.bookingservice.client.EventServiceClient;
-import com.yeditepe.bookingservice.client.PaymentServiceClient;
 import com.yeditepe.bookingservice.client.UserServiceClient;
 import com.yeditepe.bookingservice.dto.BookingRequest;
 import com.yeditepe.bookingservice.dto.BookingResponse;
+import com.yeditepe.bookingservice.dto.CursorPage;
 import com.yeditepe.bookingservice.dto.EventStockResponse;
-import com.yeditepe.bookingservice.dto.PaymentRequest;
-import com.yeditepe.bookingservice.dto.PaymentResponse;
 import com.yeditepe.bookingservice.entity.Booking;
 import com.yeditepe.bookingservice.entity.BookingStatus;
-import com.yeditepe.bookingservice.event.BookingCreatedEvent;
-import com.yeditepe.bookingservice.messaging.BookingEventPublisher;
+import com.yeditepe.bookingservice.exception.BookingQueueFullException;
+import com.yeditepe.bookingservice.exception.DownstreamUnavailableException;
 import com.yeditepe.bookingservice.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final BookingRepository bookingRepository;
     private final UserServiceClient userServiceClient;
     private final EventServiceClient eventServiceClient;
-    private final PaymentServiceClient paymentServiceClient;
-    private final BookingEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final BookingSagaOrchestrator sagaOrchestrator;
+    private final BookingWorkQueue bookingWorkQueue;
+    private final EventAdmissionGate admissionGate;
+    @Qualifier("bookingExecutor")
+    private final Executor bookingExecutor;
 
-    @Transactional
-    public BookingResponse createBooking(BookingRequest request, String authorizationHeader) {
+    @Value("${booking.user-validation.enabled:false}")
+    private boolean userValidationEnabled;
+
+    /**
+     * Booking pipeline on {@code bookingExecutor}. User validation (when enabled) and the
+     * stock check run concurrently; only once both have passed is the booking created and
+     * handed to the saga (seat, payment, confirmation). Each local write is its own short
+     * transaction, so no DB connection is held across the downstream HTTP calls.
+     */
+    public CompletableFuture<BookingResponse> createBooking(BookingRequest request, String authorizationHeader) {
         log.info("Creating booking for user: {} and event: {}", request.getUserId(), request.getEventId());
-        
-        // Skip user validation for dev mode
-        /*
-        try {
-            Boolean userValid = userServiceClient.validateUser(request.getUserId(), authorizationHeader);
-            if (!userValid) {
-                throw new RuntimeException("User validation failed");
-            }
-        } catch (Exception e) {
-            log.error("User validation failed: {}", e.getMessage());
-            throw new RuntimeException("User service unavailable or user invalid");
+
+        CompletableFuture<Void> userCheck = userValidationEnabled
+                ? CompletableFuture.runAsync(() -> validateUser(request.getUserId(), authorizationHeader), bookingExecutor)
+                : CompletableFuture.completedFuture(null);
+        if (!userValidationEnabled) {
+            log.info("User validation skipped for dev mode");
         }
-        */
-        log.info("User validation skipped for dev mode");
+        CompletableFuture<Void> stockCheck =
+                CompletableFuture.runAsync(() -> checkStock(request.getEventId()), bookingExecutor);
+
+        return userCheck.thenCombine(stockCheck, (user, stock) -> request)
+                .thenApplyAsync(r -> sagaOrchestrator.begin(r.getUserId(), r.getEventId()), bookingExecutor)
+                .thenApplyAsync(sagaOrchestrator::execute, bookingExecutor)
+                .thenApply(this::mapToResponse);
+    }
 
-        EventStockResponse stockResponse;
+    /**
+     * Async mode: stores the booking as PENDING and queues the rest of the pipeline. The
+     * worker runs the saga, which ends with the booking CONFIRMED, or CANCELLED and
+     * compensated; callers poll GET /api/bookings/{id} for the outcome.
+     */
+    public BookingResponse acceptBooking(BookingRequest request, String authorizationHeader) {
+        Booking accepted = sagaOrchestrator.beginQueued(request.getUserId(), request.getEventId());
         try {
-            stockResponse = eventServiceClient.checkStock(request.getEventId());
-            if (!stockResponse.getHasStock()) {
-                throw new RuntimeException("Event has no available seats");
-            }
-        } catch (Exception e) {
-            log.error("Stock check failed: {}", e.getMessage());
-            throw new RuntimeException("Event service unavailable or no stock");
+            bookingWorkQueue.submit(() -> processAccepted(accepted, authorizationHeader));
+        } catch (BookingQueueFullException e) {
+            // Nothing was reserved yet; drop the rows so no PENDING booking is left behind.
+            sagaOrchestrator.discard(accepted.getId());
+            throw e;
         }
+        log.info("Booking {} accepted for async processing", accepted.getId());
+        return mapToResponse(accepted);
+    }
 
-        try {
-            Boolean reserved = eventServiceClient.reserveSeat(request.getEventId());
-            if (!reserved) {
-                throw new RuntimeException("Seat reservation failed");
+    private void processAccepted(Booking booking, String authorizationHeader) {
+        if (userValidationEnabled) {
+            try {
+                validateUser(booking.getUserId(), authorizationHeader);
+            } catch (RuntimeException e) {
+                sagaOrchestrator.abort(booking.getId(), e.getMessage());
+                return;
             }
-        } catch (Exception e) {
-            log.error("Seat reservation failed: {}", e.getMessage());
-            throw new RuntimeException("Failed to reserve seat");
         }
+        try {
+            sagaOrchestrator.execute(booking);
+        } catch (RuntimeException e) {
+            log.warn("Async booking {} failed: {}", booking.getId(), e.getMessage());
+        }
+    }
 
-        Booking booking = new Booking();
-        booking.setUserId(request.getUserId());
-        booking.setEventId(request.getEventId());
-        booking.setStatus(BookingStatus.PENDING);
-        booking.setBookingDate(LocalDateTime.now());
-
-        Booking savedBooking = bookingRepository.save(booking);
-        log.info("Booking created with ID: {}", savedBooking.getId());
-
+    private void validateUser(Long userId, String authorizationHeader) {
         try {
-            PaymentRequest paymentRequest = new PaymentRequest(
-                savedBooking.getId(),
-                BigDecimal.valueOf(100.0)
-            );
-            PaymentResponse paymentResponse = paymentServiceClient.processPayment(paymentRequest);
-            
-            if (paymentResponse == null || !"COMPLETED".equals(paymentResponse.getStatus())) {
-                log.warn("Payment response invalid, skipping payment check for development: {}", paymentResponse);
-                // For development: skip payment validation if service unavailable
-                // rollbackBooking(savedBooking);
-                // throw new RuntimeException("Payment failed: " + (paymentResponse != null ? paymentResponse.getStatus() : "null response"));
+            Boolean userValid = userServiceClient.validateUser(userId, authorizationHeader);
+            if (!Boolean.TRUE.equals(userValid)) {
+                throw new RuntimeException("User validation failed");
             }
+        } catch (DownstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            log.warn("Payment processing failed (dev mode - skipping): {}", e.getMessage());
-            // For development: continue without payment
-            // rollbackBooking(savedBooking);
-            // throw new RuntimeException("Payment service unavailable");
+            log.error("User validation failed: {}", e.getMessage());
+            throw new RuntimeException("User service unavailable or user invalid");
         }
-
-    savedBooking.setStatus(BookingStatus.CONFIRMED);
-        savedBooking = bookingRepository.save(savedBooking);
-
-        // Publish event (commented out for development - RabbitMQ may not be running)
-        // BookingCreatedEvent event = new BookingCreatedEvent(
-        //     savedBooking.getId(),
-        //     savedBooking.getUserId(),
-        //     savedBooking.getEventId(),
-        //     savedBooking.getStatus().name(),
-        //     savedBooking.getBookingDate()
-        // );
-        // eventPublisher.publishBookingCreatedEvent(event);
-
-        log.info("Booking confirmed successfully: {}", savedBooking.getId());
-        return mapToResponse(savedBooking);
     }
 
-    @Transactional
-    protected void rollbackBooking(Booking booking) {
-        log.warn("Rolling back booking: {}", booking.getId());
+    private void checkStock(String eventId) {
         try {
-            eventServiceClient.releaseSeat(booking.getEventId());
-            booking.setStatus(BookingStatus.CANCELLED);
-            bookingRepository.save(booking);
-            log.info("Booking rollback completed: {}", booking.getId());
+            EventStockResponse stockResponse = eventServiceClient.checkStock(eventId);
+            if (!stockResponse.getHasStock()) {
+                admissionGate.markSoldOut(eventId);
+                throw new RuntimeException("Event has no available seats");
+            }
+        } catch (DownstreamUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Rollback failed: {}", e.getMessage());
+            log.error("Stock check failed: {}", e.getMessage());
+            throw new RuntimeException("Event service unavailable or no stock");
         }
     }
 
@@ -179,6 +184,67 @@ public class BookingService {
                 .collect(Collectors.toList());
     }
 
+    public CursorPage<BookingResponse> getBookingsPage(String cursor, int size) {
+        return page(cursor, size, (afterId, pageable) -> bookingRepository.findByIdGreaterThan(afterId, pageable));
+    }
+
+    public CursorPage<BookingResponse> getBookingsPageByUserId(Long userId, String cursor, int size) {
+        return page(cursor, size, (afterId, pageable) ->
+                bookingRepository.findByUserIdAndIdGreaterThan(userId, afterId, pageable));
+    }
+
+    public CursorPage<BookingResponse> getBookingsPageByEventId(String eventId, String cursor, int size) {
+        return page(cursor, size, (afterId, pageable) ->
+                bookingRepository.findByEventIdAndIdGreaterThan(eventId, afterId, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllBookings(Consumer<BookingResponse> sink) {
+        try (Stream<Booking> bookings = bookingRepository.streamAll()) {
+            drain(bookings, sink);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void streamBookingsByEventId(String eventId, Consumer<BookingResponse> sink) {
+        try (Stream<Booking> bookings = bookingRepository.streamByEventId(eventId)) {
+            drain(bookings, sink);
+        }
+    }
+
+    // Keyset pagination on the primary key: the cursor is the last id of the previous page.
+    private CursorPage<BookingResponse> page(String cursor, int size,
+                                             BiFunction<Long, Pageable, List<Booking>> query) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        long afterId = decodeCursor(cursor);
+
+        List<Booking> rows = query.apply(afterId, PageRequest.of(0, pageSize + 1, Sort.by("id")));
+        boolean hasMore = rows.size() > pageSize;
+        List<Booking> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? String.valueOf(page.get(pageSize - 1).getId()) : null;
+
+        return new CursorPage<>(page.stream().map(this::mapToResponse).collect(Collectors.toList()), nextCursor);
+    }
+
+    private long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Each row is detached once written so the persistence context doesn't grow with the export.
+    private void drain(Stream<Booking> bookings, Consumer<BookingResponse> sink) {
+        bookings.forEach(booking -> {
+            sink.accept(mapToResponse(booking));
+            entityManager.detach(booking);
+        });
+    }
+
     private BookingResponse mapToResponse(Booking booking) {
         return new BookingResponse(
                 booking.getId(),
@@ -0,0 +1,95 @@
+package com.yeditepe.bookingservice.service;
+
+import com.yeditepe.bookingservice.exception.BookingQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded work queue for bookings accepted with {@code mode=async}. A fixed set of workers
+ * drains it; when it is full, submission fails fast instead of growing the backlog.
+ * Depth, wait time (enqueue to start) and processing time are published under booking.queue.*.
+ */
+@Component
+@Slf4j
+public class BookingWorkQueue {
+
+    private final ThreadPoolExecutor workers;
+    private final Duration retryAfter;
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+    private final Counter rejected;
+
+    public BookingWorkQueue(MeterRegistry meterRegistry,
+                            @Value("${booking.queue.workers:8}") int workerCount,
+                            @Value("${booking.queue.capacity:10000}") int capacity,
+                            @Value("${booking.queue.retry-after-seconds:2}") long retryAfterSeconds) {
+        AtomicInteger threadIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity),
+                job -> {
+                    Thread thread = new Thread(job, "booking-worker-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfter = Duration.ofSeconds(retryAfterSeconds);
+
+        Gauge.builder("booking.queue.depth", workers, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("booking.queue.active", workers, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.waitTimer = Timer.builder("booking.queue.wait").publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        this.processingTimer = Timer.builder("booking.queue.processing").publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("booking.queue.rejected").register(meterRegistry);
+    }
+
+    public void submit(Runnable job) {
+        long enqueuedAt = System.nanoTime();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        try {
+            workers.execute(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    job.run();
+                } catch (RuntimeException ex) {
+                    log.error("Queued booking job failed: {}", ex.getMessage(), ex);
+                } finally {
+                    processingTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    MDC.clear();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new BookingQueueFullException(retryAfter);
+        }
+    }
+
+    public int depth() {
+        return workers.getQueue().size();
+    }
+
+    // Jobs still queued at shutdown are left PENDING in the database.
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
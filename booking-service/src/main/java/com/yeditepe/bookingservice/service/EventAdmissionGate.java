@@ -0,0 +1,226 @@
+package com.yeditepe.bookingservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yeditepe.bookingservice.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-event virtual waiting room in front of booking creation.
+ *
+ * Each event gets a GCRA limiter: one AtomicLong holding the theoretical arrival time,
+ * advanced by CAS, so admission is lock-free. Every arrival is given the next slot; if the
+ * slot is within the burst allowance it goes through now, otherwise the caller gets 429 with
+ * a signed queue ticket for that slot and redeems it when it retries at the right time.
+ * Arrivals that would wait longer than max-wait get no slot at all.
+ *
+ * Once the event looks sold out (stock check or reservation said so), every request for it
+ * is turned away with 409 for sold-out-ttl without touching event-service.
+ */
+@Component
+@Slf4j
+public class EventAdmissionGate {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Cache<String, EventState> events;
+    private final Cache<String, Boolean> redeemedTickets;
+    private final LongSupplier clock;
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final long maxWaitNanos;
+    private final long ticketGraceNanos;
+    private final long soldOutTtlNanos;
+    private final SecretKeySpec ticketKey;
+
+    private final Counter admitted;
+    private final Counter queued;
+    private final Counter overloaded;
+    private final Counter soldOut;
+
+    @Autowired
+    public EventAdmissionGate(MeterRegistry meterRegistry,
+                              @Value("${booking.admission.enabled:true}") boolean enabled,
+                              @Value("${booking.admission.rate-per-second:50}") double ratePerSecond,
+                              @Value("${booking.admission.burst:100}") int burst,
+                              @Value("${booking.admission.max-wait-seconds:300}") long maxWaitSeconds,
+                              @Value("${booking.admission.ticket-grace-seconds:30}") long ticketGraceSeconds,
+                              @Value("${booking.admission.sold-out-ttl-seconds:5}") long soldOutTtlSeconds,
+                              @Value("${booking.admission.ticket-secret:}") String ticketSecret,
+                              @Value("${booking.admission.max-events:100000}") long maxEvents) {
+        this(meterRegistry, enabled, ratePerSecond, burst, maxWaitSeconds, ticketGraceSeconds, soldOutTtlSeconds,
+                ticketSecret, maxEvents, () -> TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+    }
+
+    EventAdmissionGate(MeterRegistry meterRegistry, boolean enabled, double ratePerSecond, int burst,
+                       long maxWaitSeconds, long ticketGraceSeconds, long soldOutTtlSeconds,
+                       String ticketSecret, long maxEvents, LongSupplier clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        this.toleranceNanos = intervalNanos * Math.max(burst - 1, 0);
+        this.maxWaitNanos = TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+        this.ticketGraceNanos = TimeUnit.SECONDS.toNanos(ticketGraceSeconds);
+        this.soldOutTtlNanos = TimeUnit.SECONDS.toNanos(soldOutTtlSeconds);
+        this.ticketKey = new SecretKeySpec(secretBytes(ticketSecret), "HmacSHA256");
+        // Event ids come from callers, so the map is bounded. An event idle for longer than its queue
+        // and sold-out marks can reach is indistinguishable from a new one and may be dropped.
+        this.events = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(Math.max(maxWaitNanos + toleranceNanos + intervalNanos, soldOutTtlNanos))
+                        .plusSeconds(1))
+                .maximumSize(maxEvents)
+                .build();
+        this.redeemedTickets = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofNanos(ticketGraceNanos).plusSeconds(1))
+                .build();
+
+        this.admitted = outcome(meterRegistry, "admitted");
+        this.queued = outcome(meterRegistry, "queued");
+        this.overloaded = outcome(meterRegistry, "overloaded");
+        this.soldOut = outcome(meterRegistry, "sold_out");
+    }
+
+    /**
+     * Lets the booking through or throws {@link AdmissionRejectedException}. A valid ticket
+     * whose slot has come is admitted without consuming another slot, and only once.
+     */
+    public void admit(String eventId, String ticket) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        EventState state = events.get(eventId, id -> new EventState());
+
+        long soldOutUntil = state.soldOutUntil.get();
+        if (now < soldOutUntil) {
+            soldOut.increment();
+            throw AdmissionRejectedException.soldOut(eventId, Duration.ofNanos(soldOutUntil - now));
+        }
+
+        if (ticket != null && redeem(eventId, ticket, now)) {
+            admitted.increment();
+            return;
+        }
+
+        while (true) {
+            long tat = state.theoreticalArrival.get();
+            long slot = Math.max(tat, now);
+            long wait = slot - now - toleranceNanos;
+            if (wait > maxWaitNanos) {
+                overloaded.increment();
+                throw AdmissionRejectedException.overloaded(eventId, Duration.ofNanos(wait - maxWaitNanos));
+            }
+            if (state.theoreticalArrival.compareAndSet(tat, slot + intervalNanos)) {
+                if (wait <= 0) {
+                    admitted.increment();
+                    return;
+                }
+                queued.increment();
+                long notBefore = now + wait;
+                throw AdmissionRejectedException.queued(eventId, Duration.ofNanos(wait), issue(eventId, notBefore));
+            }
+        }
+    }
+
+    public void markSoldOut(String eventId) {
+        if (!enabled) {
+            return;
+        }
+        long until = clock.getAsLong() + soldOutTtlNanos;
+        EventState state = events.get(eventId, id -> new EventState());
+        state.soldOutUntil.accumulateAndGet(until, Math::max);
+        log.info("Event {} marked sold out for {} s", eventId, TimeUnit.NANOSECONDS.toSeconds(soldOutTtlNanos));
+    }
+
+    long trackedEvents() {
+        events.cleanUp();
+        return events.estimatedSize();
+    }
+
+    // Ticket: base64url("eventId|notBeforeNanos|nonce") + "." + base64url(HMAC).
+    private String issue(String eventId, long notBefore) {
+        byte[] nonce = new byte[8];
+        RANDOM.nextBytes(nonce);
+        String payload = ENCODER.encodeToString(
+                (eventId + "|" + notBefore + "|" + ENCODER.encodeToString(nonce)).getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    // Too-early tickets are rejected with the remaining wait; forged, expired or reused ones are ignored.
+    private boolean redeem(String eventId, String ticket, long now) {
+        int dot = ticket.indexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+        String payload = ticket.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(ticket.substring(dot + 1)))) {
+                return false;
+            }
+            String[] parts = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3 || !parts[0].equals(eventId)) {
+                return false;
+            }
+            long notBefore = Long.parseLong(parts[1]);
+            if (now < notBefore) {
+                queued.increment();
+                throw AdmissionRejectedException.queued(eventId, Duration.ofNanos(notBefore - now), ticket);
+            }
+            if (now > notBefore + ticketGraceNanos) {
+                return false;
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return redeemedTickets.asMap().putIfAbsent(ticket, Boolean.TRUE) == null;
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(ticketKey);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign queue ticket", e);
+        }
+    }
+
+    // Without a configured secret, tickets are only valid on the instance that issued them.
+    private static byte[] secretBytes(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] random = new byte[32];
+        RANDOM.nextBytes(random);
+        return random;
+    }
+
+    private static Counter outcome(MeterRegistry registry, String outcome) {
+        return Counter.builder("booking.admission").tag("outcome", outcome).register(registry);
+    }
+
+    private static final class EventState {
+        private final AtomicLong theoreticalArrival = new AtomicLong();
+        private final AtomicLong soldOutUntil = new AtomicLong();
+    }
+}
@@ -0,0 +1,82 @@
+package com.yeditepe.bookingservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yeditepe.bookingservice.dto.BookingResponse;
+import com.yeditepe.bookingservice.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of booking requests by Idempotency-Key. The first request with a key
+ * runs; concurrent duplicates wait on the same future and later replays get the stored
+ * response. Failed executions are forgotten so the client can retry them.
+ *
+ * The store is bounded and entries expire after the configured TTL; it is per instance, so
+ * retries are expected to reach the same instance (or hit the database-level guards).
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> cache;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${booking.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${booking.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "bookingIdempotency");
+    }
+
+    public CompletableFuture<BookingResponse> execute(String key, String fingerprint,
+                                                      Supplier<CompletableFuture<BookingResponse>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        Entry created = new Entry(fingerprint);
+        Entry entry = cache.asMap().putIfAbsent(key, created);
+        if (entry != null) {
+            if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return entry.result;
+        }
+
+        CompletableFuture<BookingResponse> execution;
+        try {
+            execution = action.get();
+        } catch (RuntimeException ex) {
+            execution = CompletableFuture.failedFuture(ex);
+        }
+        execution.whenComplete((response, error) -> {
+            if (error != null) {
+                cache.asMap().remove(key, created);
+                created.result.completeExceptionally(error);
+            } else {
+                created.result.complete(response);
+            }
+        });
+        return created.result;
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<BookingResponse> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.yeditepe.bookingservice.service;
+
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.dto.SeatRequest;
+import com.yeditepe.bookingservice.entity.Booking;
+import com.yeditepe.bookingservice.entity.BookingSaga;
+import com.yeditepe.bookingservice.entity.BookingStatus;
+import com.yeditepe.bookingservice.entity.ReaperLease;
+import com.yeditepe.bookingservice.entity.SagaStep;
+import com.yeditepe.bookingservice.repository.BookingRepository;
+import com.yeditepe.bookingservice.repository.BookingSagaRepository;
+import com.yeditepe.bookingservice.repository.ReaperLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels bookings that have sat in PENDING longer than the timeout (the flow died between
+ * creating the booking and confirming it) and gives their seats back.
+ *
+ * The bookings table is split into MOD(id, partitions) slices, each guarded by a lease in
+ * reaper_leases, so several instances can run the reaper at once without reaping the same
+ * rows; an instance scans only the slices it could lease for the current run. Per batch, bookings are cancelled with a conditional update and their sagas moved to
+ * COMPENSATING in one transaction; seats are then released with one call per event, and the
+ * sagas closed. Right before each call the event's sagas are guarded from saga recovery for
+ * another lease, and every seat goes out under its booking's release key, so a release that
+ * recovery repeats (after a failed or timed-out call, or a lapsed guard) is not applied twice.
+ * A saga still at STARTED may have a reserve in flight; its key is cancelled instead, which gives
+ * back whatever that reserve took and voids it if it arrives later.
+ * Bookings whose payment may have gone through are left to saga recovery, which refunds.
+ */
+@Component
+@Slf4j
+public class PendingBookingReaper {
+
+    private final BookingRepository bookingRepository;
+    private final BookingSagaRepository sagaRepository;
+    private final ReaperLeaseRepository leaseRepository;
+    private final EventServiceClient eventServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final boolean enabled;
+    private final Duration pendingTimeout;
+    private final int partitions;
+    private final int batchSize;
+    private final Duration leaseDuration;
+
+    private final Counter reaped;
+    private final Counter seatsReleased;
+    private final Counter releaseFailures;
+
+    public PendingBookingReaper(BookingRepository bookingRepository,
+                                BookingSagaRepository sagaRepository,
+                                ReaperLeaseRepository leaseRepository,
+                                EventServiceClient eventServiceClient,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${spring.application.name:booking-service}") String applicationName,
+                                @Value("${booking.reaper.enabled:true}") boolean enabled,
+                                @Value("${booking.reaper.pending-timeout-seconds:900}") long pendingTimeoutSeconds,
+                                @Value("${booking.reaper.partitions:16}") int partitions,
+                                @Value("${booking.reaper.batch-size:500}") int batchSize,
+                                @Value("${booking.reaper.lease-seconds:60}") long leaseSeconds) {
+        this.bookingRepository = bookingRepository;
+        this.sagaRepository = sagaRepository;
+        this.leaseRepository = leaseRepository;
+        this.eventServiceClient = eventServiceClient;
+        this.transactionTemplate = transactionTemplate;
+        this.owner = applicationName + ":" + UUID.randomUUID();
+        this.enabled = enabled;
+        this.pendingTimeout = Duration.ofSeconds(pendingTimeoutSeconds);
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+
+        this.reaped = Counter.builder("booking.reaper.reaped").register(meterRegistry);
+        this.seatsReleased = Counter.builder("booking.reaper.seats.released").register(meterRegistry);
+        this.releaseFailures = Counter.builder("booking.reaper.release.failures").register(meterRegistry);
+    }
+
+    // One lease row per partition; instances racing to create them just lose the insert.
+    @EventListener(ApplicationReadyEvent.class)
+    public void createLeases() {
+        if (!enabled) {
+            return;
+        }
+        for (int partition = 0; partition < partitions; partition++) {
+            if (!leaseRepository.existsById(partition)) {
+                try {
+                    leaseRepository.save(new ReaperLease(partition, null, LocalDateTime.now()));
+                } catch (DataIntegrityViolationException e) {
+                    log.debug("Lease {} created by another instance", partition);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.reaper.interval-ms:30000}",
+            initialDelayString = "${booking.reaper.initial-delay-ms:30000}")
+    public void reap() {
+        if (!enabled) {
+            return;
+        }
+        List<Integer> owned = acquireLeases();
+        if (owned.isEmpty()) {
+            return;
+        }
+        try {
+            // All owned slices are scanned together so each batch groups as many seats per event as possible.
+            // A batch where every row was skipped (e.g. claimed by saga recovery meanwhile) would come back
+            // unchanged, so the run stops there instead of spinning on it.
+            List<Booking> stale;
+            Batch batch;
+            do {
+                LocalDateTime cutoff = LocalDateTime.now().minus(pendingTimeout);
+                stale = bookingRepository.findStale(BookingStatus.PENDING, cutoff, partitions, owned,
+                        PageRequest.of(0, batchSize));
+                if (stale.isEmpty()) {
+                    break;
+                }
+                batch = cancelBatch(stale);
+                releaseSeats(batch.toRelease());
+            } while (stale.size() == batchSize && batch.handled() > 0);
+        } finally {
+            // Leases are only held while working, so the slices spread over instances from run to run;
+            // the expiry only matters when an instance dies mid-run.
+            leaseRepository.releaseAll(owner);
+        }
+    }
+
+    @PreDestroy
+    public void releaseLeases() {
+        if (enabled) {
+            leaseRepository.releaseAll(owner);
+        }
+    }
+
+    // Random start so instances don't all contend for partition 0 first.
+    private List<Integer> acquireLeases() {
+        List<Integer> owned = new ArrayList<>();
+        int offset = ThreadLocalRandom.current().nextInt(partitions);
+        for (int i = 0; i < partitions; i++) {
+            int partition = (offset + i) % partitions;
+            LocalDateTime now = LocalDateTime.now();
+            if (leaseRepository.acquire(partition, owner, now, now.plus(leaseDuration)) == 1) {
+                owned.add(partition);
+            }
+        }
+        return owned;
+    }
+
+    // Cancels the batch and returns the sagas whose seat still has to be given back.
+    private Batch cancelBatch(List<Booking> stale) {
+        LocalDateTime guardUntil = LocalDateTime.now().plus(leaseDuration);
+        return transactionTemplate.execute(status -> {
+            Map<Long, BookingSaga> sagas = sagaRepository.findAllById(
+                            stale.stream().map(Booking::getId).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(BookingSaga::getBookingId, Function.identity()));
+            List<BookingSaga> toRelease = new ArrayList<>();
+            int handled = 0;
+            for (Booking booking : stale) {
+                BookingSaga saga = sagas.get(booking.getId());
+                if (saga == null) {
+                    // Booking from before sagas existed: its seat was reserved before the row was written.
+                    saga = new BookingSaga(booking.getId(), booking.getEventId());
+                    saga.setSeatReserved(true);
+                } else if (saga.getStep() == SagaStep.COMPENSATING
+                        || sagaRepository.claim(saga.getBookingId(), saga.getUpdatedAt(), LocalDateTime.now()) == 0) {
+                    // Already being compensated, or saga recovery claimed it first.
+                    continue;
+                } else {
+                    // The claim bumped the version and cleared the persistence context.
+                    saga = sagaRepository.findById(booking.getId()).orElseThrow();
+                    if (saga.getStep() == SagaStep.STARTED) {
+                        saga.setSeatRequested(true);
+                    }
+                }
+                handled++;
+                if (saga.isPaymentAttempted()) {
+                    // Needs a refund check; saga recovery compensates it.
+                    saga.setStep(SagaStep.COMPENSATING);
+                    saga.setLastError("Pending too long");
+                    saga.setNextAttemptAt(null);
+                    sagaRepository.save(saga);
+                    continue;
+                }
+                if (bookingRepository.transitionStatus(booking.getId(), BookingStatus.PENDING, BookingStatus.CANCELLED) == 0) {
+                    continue;
+                }
+                reaped.increment();
+                // Saga recovery stays away until the lease would have run out, then retries the release itself.
+                saga.setStep(SagaStep.COMPENSATING);
+                saga.setLastError("Pending too long");
+                saga.setNextAttemptAt(guardUntil);
+                BookingSaga saved = sagaRepository.save(saga);
+                if (saved.isSeatReserved() || saved.isSeatRequested()) {
+                    toRelease.add(saved);
+                } else {
+                    saved.setStep(SagaStep.COMPENSATED);
+                    saved.setNextAttemptAt(null);
+                    sagaRepository.save(saved);
+                }
+            }
+            return new Batch(handled, toRelease);
+        });
+    }
+
+    private void releaseSeats(List<BookingSaga> sagas) {
+        Map<String, List<BookingSaga>> byEvent = new HashMap<>();
+        for (BookingSaga saga : sagas) {
+            byEvent.computeIfAbsent(saga.getEventId(), id -> new ArrayList<>()).add(saga);
+        }
+        byEvent.forEach((eventId, eventSagas) -> {
+            List<BookingSaga> guarded;
+            try {
+                guarded = extendGuard(eventSagas);
+            } catch (OptimisticLockingFailureException e) {
+                // The guard lapsed and saga recovery claimed some of them; it releases them under the same keys.
+                log.warn("Sagas for event {} were taken over by saga recovery: {}", eventId, e.getMessage());
+                return;
+            }
+            List<SeatRequest> releases = guarded.stream()
+                    .filter(BookingSaga::isSeatReserved)
+                    .map(saga -> new SeatRequest(eventId, 1, saga.seatKey()))
+                    .collect(Collectors.toList());
+            try {
+                if (!releases.isEmpty()) {
+                    eventServiceClient.releaseSeats(releases);
+                }
+                for (BookingSaga saga : guarded) {
+                    if (!saga.isSeatReserved()) {
+                        eventServiceClient.cancelReservation(eventId, saga.seatKey());
+                    }
+                }
+            } catch (RuntimeException e) {
+                releaseFailures.increment();
+                log.warn("Releasing {} seats for event {} failed, saga recovery will retry: {}",
+                        guarded.size(), eventId, e.getMessage());
+                return;
+            }
+            seatsReleased.increment(guarded.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (BookingSaga saga : guarded) {
+                        saga.setSeatReserved(false);
+                        saga.setSeatRequested(false);
+                        saga.setStep(SagaStep.COMPENSATED);
+                        saga.setNextAttemptAt(null);
+                        sagaRepository.save(saga);
+                    }
+                });
+            } catch (OptimisticLockingFailureException e) {
+                log.warn("Sagas for event {} were taken over by saga recovery after their release: {}",
+                        eventId, e.getMessage());
+            }
+        });
+        if (!sagas.isEmpty()) {
+            log.info("Reaped {} stale bookings across {} events", sagas.size(), byEvent.size());
+        }
+    }
+
+    // Pushes saga recovery out for another lease, so it can't pick these sagas up while their release is in flight.
+    private List<BookingSaga> extendGuard(List<BookingSaga> sagas) {
+        LocalDateTime guardUntil = LocalDateTime.now().plus(leaseDuration);
+        return transactionTemplate.execute(status -> {
+            List<BookingSaga> guarded = new ArrayList<>(sagas.size());
+            for (BookingSaga saga : sagas) {
+                saga.setNextAttemptAt(guardUntil);
+                guarded.add(sagaRepository.save(saga));
+            }
+            return guarded;
+        });
+    }
+
+    private record Batch(int handled, List<BookingSaga> toRelease) {
+    }
+}
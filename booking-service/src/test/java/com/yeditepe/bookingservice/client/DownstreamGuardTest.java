@@ -0,0 +1,87 @@
+package com.yeditepe.bookingservice.client;
+
+import com.yeditepe.bookingservice.exception.DownstreamUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownstreamGuardTest {
+
+    private final DownstreamGuard guard = new DownstreamGuard(
+            CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                    .slidingWindowSize(4)
+                    .minimumNumberOfCalls(4)
+                    .failureRateThreshold(50)
+                    .waitDurationInOpenState(Duration.ofSeconds(7))
+                    .ignoreExceptions(HttpClientErrorException.class)
+                    .build()),
+            BulkheadRegistry.of(BulkheadConfig.custom()
+                    .maxConcurrentCalls(1)
+                    .maxWaitDuration(Duration.ZERO)
+                    .build()));
+
+    @Test
+    void openBreakerFailsFastWithoutCallingTheService() {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.call("event-service", () -> {
+                throw new ResourceAccessException("Read timed out");
+            }));
+        }
+
+        AtomicInteger calls = new AtomicInteger();
+        DownstreamUnavailableException ex = assertThrows(DownstreamUnavailableException.class,
+                () -> guard.call("event-service", calls::incrementAndGet));
+
+        assertEquals(0, calls.get());
+        assertEquals(Duration.ofSeconds(7), ex.getRetryAfter());
+        assertEquals(1, guard.call("payment-service", () -> 1));
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheBreaker() {
+        for (int i = 0; i < 10; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.call("user-service", () -> {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }));
+        }
+
+        assertEquals("ok", guard.call("user-service", () -> "ok"));
+    }
+
+    @Test
+    void fullBulkheadShedsExtraCalls() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> guard.call("event-service", () -> {
+            inside.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        holder.start();
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        assertThrows(DownstreamUnavailableException.class, () -> guard.call("event-service", () -> true));
+
+        release.countDown();
+        holder.join();
+        assertTrue(guard.call("event-service", () -> true));
+    }
+}
@@ -0,0 +1,192 @@
+package com.yeditepe.bookingservice.client.impl;
+
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CoalescingEventServiceClientTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingEventServiceClientTest.class);
+
+    private final EventServiceClient delegate = mock(EventServiceClient.class);
+    private final AtomicInteger seats = new AtomicInteger();
+    private final AtomicInteger calls = new AtomicInteger();
+    // What event-service recorded per reservation key.
+    private final Map<String, Boolean> reserved = new ConcurrentHashMap<>();
+
+    @Test
+    void concurrentReservationsShareCallsAndNeverOversell() throws Exception {
+        stubInventory(12, 0);
+        EventServiceClient client = coalescing(20, 100);
+
+        List<Boolean> results = reserveConcurrently(client, 40);
+
+        assertEquals(12, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(0, seats.get());
+        assertTrue(calls.get() < 40, "expected coalesced calls, got " + calls.get());
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        stubInventory(10, 0);
+        EventServiceClient client = coalescing(60_000, 4);
+
+        long start = System.nanoTime();
+        List<Boolean> results = reserveConcurrently(client, 4);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        assertEquals(4, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void batchWhoseReplyWasLostIsSentAgainAndAnsweredOnce() throws Exception {
+        seats.set(2);
+        Object row = new Object();
+        // The first call is applied by event-service, but its reply never arrives.
+        when(delegate.reserveSeats(anyString(), anyList()))
+                .thenAnswer(inv -> {
+                    take(row, inv.getArgument(1), 0);
+                    throw new ResourceAccessException("Read timed out");
+                })
+                .thenAnswer(inv -> take(row, inv.getArgument(1), 0));
+        EventServiceClient client = coalescing(60_000, 3);
+
+        List<Boolean> results = reserveConcurrently(client, 3);
+
+        assertEquals(2, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(0, seats.get());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void batchThatFailsTwiceFailsEveryWaiterWithItsKeyIntact() throws Exception {
+        when(delegate.reserveSeats(anyString(), anyList())).thenThrow(new ResourceAccessException("Read timed out"));
+        EventServiceClient client = coalescing(60_000, 3);
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String key = "booking-" + i;
+                futures.add(pool.submit(() -> client.reserveSeat("event-1", key)));
+            }
+            for (Future<Boolean> f : futures) {
+                ExecutionException ex = assertThrows(ExecutionException.class, f::get);
+                assertInstanceOf(ResourceAccessException.class, ex.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        // Sent twice under the callers' own keys, which each caller can then cancel.
+        verify(delegate, times(2)).reserveSeats(eq("event-1"),
+                argThat(keys -> keys.size() == 3 && keys.containsAll(List.of("booking-0", "booking-1", "booking-2"))));
+    }
+
+    @Test
+    void disabledCoalescerCallsThrough() {
+        stubInventory(1, 0);
+        EventServiceClient client = new CoalescingEventServiceClient(delegate, new SimpleMeterRegistry(), false, 100, 50);
+
+        assertTrue(client.reserveSeat("event-1", "booking-1"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void coalescedVersusUnbatchedThroughput() throws Exception {
+        int requests = 20_000;
+        // Each call holds the event's row for ~1 ms, like the conditional UPDATE on a hot event.
+        stubInventory(Integer.MAX_VALUE, 1);
+
+        long start = System.nanoTime();
+        reserveConcurrently(new CoalescingEventServiceClient(delegate, new SimpleMeterRegistry(), false, 2, 50), requests);
+        double unbatchedRate = requests / ((System.nanoTime() - start) / 1e9);
+        int unbatchedCalls = calls.getAndSet(0);
+
+        start = System.nanoTime();
+        reserveConcurrently(coalescing(2, 50), requests);
+        double coalescedRate = requests / ((System.nanoTime() - start) / 1e9);
+
+        log.info("unbatched: {} req/s ({} calls), coalesced: {} req/s ({} calls)",
+                Math.round(unbatchedRate), unbatchedCalls, Math.round(coalescedRate), calls.get());
+        // Unbatched, every request waits its turn on the row; coalesced, up to 50 share one turn.
+        assertTrue(coalescedRate > 5 * unbatchedRate,
+                "coalesced " + Math.round(coalescedRate) + " req/s vs unbatched " + Math.round(unbatchedRate));
+    }
+
+    private CoalescingEventServiceClient coalescing(long windowMs, int maxBatch) {
+        return new CoalescingEventServiceClient(delegate, new SimpleMeterRegistry(), true, windowMs, maxBatch);
+    }
+
+    private void stubInventory(int available, long latencyMs) {
+        seats.set(available);
+        Object row = new Object();
+        when(delegate.reserveSeat(anyString(), anyString())).thenCallRealMethod();
+        when(delegate.reserveSeats(anyString(), anyList())).thenAnswer(inv -> take(row, inv.getArgument(1), latencyMs));
+    }
+
+    // Like event-service: one seat per new key while seats last, a known key answers as before.
+    private List<Boolean> take(Object row, List<String> keys, long latencyMs) throws InterruptedException {
+        calls.incrementAndGet();
+        synchronized (row) {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            List<Boolean> answers = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                answers.add(reserved.computeIfAbsent(key, k -> seats.get() > 0 && seats.getAndDecrement() > 0));
+            }
+            return answers;
+        }
+    }
+
+    private List<Boolean> reserveConcurrently(EventServiceClient client, int requests) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(requests, 64));
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                String key = "booking-" + UUID.randomUUID();
+                Callable<Boolean> call = () -> client.reserveSeat("event-1", key);
+                futures.add(pool.submit(call));
+            }
+            List<Boolean> results = new ArrayList<>(requests);
+            for (Future<Boolean> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.yeditepe.bookingservice.messaging;
+
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.client.PaymentServiceClient;
+import com.yeditepe.bookingservice.client.UserServiceClient;
+import com.yeditepe.bookingservice.dto.BookingRequest;
+import com.yeditepe.bookingservice.dto.BookingResponse;
+import com.yeditepe.bookingservice.dto.EventStockResponse;
+import com.yeditepe.bookingservice.dto.PaymentResponse;
+import com.yeditepe.bookingservice.entity.OutboxEvent;
+import com.yeditepe.bookingservice.repository.OutboxEventRepository;
+import com.yeditepe.bookingservice.service.BookingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "booking.outbox.enabled=true",
+        "booking.outbox.poll-interval-ms=3600000"})
+class OutboxRelayTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private BookingEventPublisher publisher;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private EventServiceClient eventServiceClient;
+
+    @MockBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        reset(publisher);
+        when(eventServiceClient.checkStock(anyString())).thenReturn(new EventStockResponse("event-1", 10, true));
+        when(eventServiceClient.reserveSeat(anyString(), anyString())).thenReturn(true);
+        PaymentResponse payment = new PaymentResponse();
+        payment.setStatus("COMPLETED");
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment);
+    }
+
+    @Test
+    void confirmedBookingIsWrittenToTheOutboxAndRelayed() {
+        BookingResponse booking = bookingService.createBooking(new BookingRequest(1L, "event-1"), null).join();
+
+        List<OutboxEvent> pending = outboxEventRepository.findAll();
+        assertEquals(1, pending.size());
+        assertEquals(String.valueOf(booking.getId()), pending.get(0).getAggregateId());
+        assertTrue(pending.get(0).getPayload().contains("\"status\":\"CONFIRMED\""));
+
+        outboxRelay.relay();
+
+        verify(publisher).publishConfirmed(anyList(), any());
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    @Test
+    void unconfirmedBatchStaysInTheOutbox() {
+        bookingService.createBooking(new BookingRequest(2L, "event-1"), null).join();
+        doThrow(new AmqpException("nack")).when(publisher).publishConfirmed(anyList(), any());
+
+        outboxRelay.relay();
+
+        List<OutboxEvent> pending = outboxEventRepository.findAll();
+        assertEquals(1, pending.size());
+        // The failed pass gives its claim back so the row is retried straight away.
+        assertNull(pending.get(0).getClaimedUntil());
+    }
+
+    @Test
+    void rowsClaimedByAnotherRelayAreLeftToItUntilTheClaimRunsOut() {
+        bookingService.createBooking(new BookingRequest(3L, "event-1"), null).join();
+        List<Long> ids = outboxEventRepository.findAll().stream().map(OutboxEvent::getId).toList();
+        LocalDateTime now = LocalDateTime.now();
+        assertEquals(1, outboxEventRepository.claim(ids, "other-instance", now, now.plusMinutes(5)));
+
+        outboxRelay.relay();
+
+        verify(publisher, never()).publishConfirmed(anyList(), any());
+        assertEquals(1, outboxEventRepository.count());
+
+        // The other relay died without finishing; once its claim lapses the row is sent from here.
+        outboxEventRepository.claim(ids, "other-instance", now.plusMinutes(10), now.minusSeconds(1));
+        outboxRelay.relay();
+
+        verify(publisher).publishConfirmed(anyList(), any());
+        assertEquals(0, outboxEventRepository.count());
+    }
+}
@@ -0,0 +1,126 @@
+package com.yeditepe.bookingservice.repository;
+
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.client.PaymentServiceClient;
+import com.yeditepe.bookingservice.client.UserServiceClient;
+import com.yeditepe.bookingservice.entity.Booking;
+import com.yeditepe.bookingservice.entity.BookingStatus;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"eureka.client.enabled=false", "spring.jpa.show-sql=false"})
+class BookingRepositoryTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingRepositoryTest.class);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private EventServiceClient eventServiceClient;
+
+    @MockBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void sequenceIdsAreAssignedBeforeTheBatchedInsert() {
+        List<Booking> batch = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            batch.add(booking(900_000L + i, "seq-event"));
+        }
+
+        List<Booking> saved = bookingRepository.saveAll(batch);
+
+        for (int i = 1; i < saved.size(); i++) {
+            assertTrue(saved.get(i).getId() > saved.get(i - 1).getId());
+        }
+        assertEquals(120, bookingRepository.findByEventId("seq-event").size());
+        assertFalse(bookingRepository.findByUserIdAndStatus(900_000L, BookingStatus.PENDING).isEmpty());
+    }
+
+    // 10M rows takes a while on H2; -Dbenchmark.rows picks a smaller table.
+    @Test
+    @Tag("benchmark")
+    void insertAndLookupAtScale() {
+        int rows = Integer.getInteger("benchmark.rows", 10_000_000);
+        int chunk = 10_000;
+        int users = Math.max(rows / 20, 1);
+        int events = Math.max(rows / 1_000, 1);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        long start = System.nanoTime();
+        for (int done = 0; done < rows; done += chunk) {
+            int from = done;
+            int size = Math.min(chunk, rows - done);
+            tx.executeWithoutResult(status -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < size; i++) {
+                    entityManager.persist(booking((long) random.nextInt(users), "bench-" + random.nextInt(events)));
+                    if ((from + i + 1) % 50 == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            });
+        }
+        double insertRate = rows / ((System.nanoTime() - start) / 1e9);
+
+        int lookups = 2_000;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            bookingRepository.findByUserId((long) random.nextInt(users));
+        }
+        double byUser = (System.nanoTime() - start) / 1e3 / lookups;
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            bookingRepository.findByUserIdAndStatus((long) random.nextInt(users), BookingStatus.PENDING);
+        }
+        double byUserAndStatus = (System.nanoTime() - start) / 1e3 / lookups;
+
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            bookingRepository.findByEventId("bench-" + random.nextInt(events));
+        }
+        double byEvent = (System.nanoTime() - start) / 1e3 / lookups;
+
+        log.info("{} rows: insert {} rows/s, findByUserId {} us, findByUserIdAndStatus {} us, findByEventId {} us",
+                rows, Math.round(insertRate), Math.round(byUser), Math.round(byUserAndStatus), Math.round(byEvent));
+    }
+
+    private Booking booking(Long userId, String eventId) {
+        Booking booking = new Booking();
+        booking.setUserId(userId);
+        booking.setEventId(eventId);
+        booking.setStatus(BookingStatus.PENDING);
+        booking.setBookingDate(LocalDateTime.now());
+        return booking;
+    }
+}
@@ -0,0 +1,270 @@
+package com.yeditepe.bookingservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.client.PaymentServiceClient;
+import com.yeditepe.bookingservice.client.UserServiceClient;
+import com.yeditepe.bookingservice.dto.PaymentRequest;
+import com.yeditepe.bookingservice.dto.PaymentResponse;
+import com.yeditepe.bookingservice.dto.SeatRequest;
+import com.yeditepe.bookingservice.entity.Booking;
+import com.yeditepe.bookingservice.entity.BookingSaga;
+import com.yeditepe.bookingservice.entity.BookingStatus;
+import com.yeditepe.bookingservice.entity.SagaStep;
+import com.yeditepe.bookingservice.repository.BookingRepository;
+import com.yeditepe.bookingservice.repository.BookingSagaRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Its own database: saga recovery scheduled in other cached test contexts would otherwise claim these sagas.
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:sagadb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "booking.saga.recovery-interval-ms=3600000",
+        "booking.saga.stale-after-seconds=60"})
+class BookingSagaOrchestratorTest {
+
+    @Autowired
+    private BookingSagaOrchestrator orchestrator;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingSagaRepository sagaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private EventServiceClient eventServiceClient;
+
+    @MockBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void paymentRequestCarriesEverythingPaymentServiceValidates() throws Exception {
+        when(eventServiceClient.reserveSeat(eq("saga-0"), anyString())).thenReturn(true);
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment(70L, "COMPLETED"));
+
+        Booking booking = orchestrator.begin(10L, "saga-0");
+        orchestrator.execute(booking);
+
+        ArgumentCaptor<PaymentRequest> request = ArgumentCaptor.forClass(PaymentRequest.class);
+        verify(paymentServiceClient).processPayment(request.capture());
+        // Same body PaymentProcessingServiceTest checks against payment-service's validation.
+        assertEquals("{\"bookingId\":" + booking.getId() + ",\"amount\":100.0,\"paymentMethod\":\"CREDIT_CARD\"}",
+                objectMapper.writeValueAsString(request.getValue()));
+    }
+
+    @Test
+    void declinedPaymentReleasesTheSeatAndCancelsTheBooking() throws Exception {
+        when(eventServiceClient.reserveSeat(eq("saga-1"), anyString())).thenReturn(true);
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment(null, "FAILED"));
+        when(paymentServiceClient.getPaymentsByBooking(any())).thenReturn(List.of());
+
+        Booking booking = orchestrator.begin(1L, "saga-1");
+        assertThrows(RuntimeException.class, () -> orchestrator.execute(booking));
+
+        BookingSaga saga = awaitFinished(booking.getId());
+        assertEquals(SagaStep.COMPENSATED, saga.getStep());
+        assertFalse(saga.isSeatReserved());
+        assertEquals(BookingStatus.CANCELLED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        verify(eventServiceClient).releaseSeats(List.of(new SeatRequest("saga-1", 1, "booking-" + booking.getId())));
+    }
+
+    @Test
+    void paymentThatWentThroughDespiteAnErrorIsRefunded() throws Exception {
+        when(eventServiceClient.reserveSeat(eq("saga-2"), anyString())).thenReturn(true);
+        when(paymentServiceClient.processPayment(any())).thenThrow(new RuntimeException("Read timed out"));
+        when(paymentServiceClient.getPaymentsByBooking(any())).thenReturn(List.of(payment(77L, "COMPLETED")));
+
+        Booking booking = orchestrator.begin(2L, "saga-2");
+        assertThrows(RuntimeException.class, () -> orchestrator.execute(booking));
+
+        assertEquals(SagaStep.COMPENSATED, awaitFinished(booking.getId()).getStep());
+        verify(paymentServiceClient, timeout(2000)).refundPayment(77L);
+        verify(eventServiceClient).releaseSeats(List.of(new SeatRequest("saga-2", 1, "booking-" + booking.getId())));
+    }
+
+    @Test
+    void failedReservationCancelsWithoutReleasing() throws Exception {
+        when(eventServiceClient.reserveSeat(eq("saga-3"), anyString())).thenReturn(false);
+
+        Booking booking = orchestrator.begin(3L, "saga-3");
+        assertThrows(RuntimeException.class, () -> orchestrator.execute(booking));
+
+        assertEquals(SagaStep.COMPENSATED, awaitFinished(booking.getId()).getStep());
+        verify(eventServiceClient, never()).releaseSeats(anyList());
+        verify(eventServiceClient, never()).cancelReservation(anyString(), anyString());
+        verify(paymentServiceClient, never()).processPayment(any());
+    }
+
+    @Test
+    void reserveWithALostReplyIsCancelledUnderTheBookingsKey() throws Exception {
+        when(eventServiceClient.reserveSeat(eq("saga-8"), anyString())).thenThrow(new RuntimeException("Read timed out"));
+
+        Booking booking = orchestrator.begin(8L, "saga-8");
+        assertThrows(RuntimeException.class, () -> orchestrator.execute(booking));
+
+        // event-service may have taken the seat; the cancel gives back whatever the key got.
+        assertEquals(SagaStep.COMPENSATED, awaitFinished(booking.getId()).getStep());
+        verify(eventServiceClient).cancelReservation("saga-8", "booking-" + booking.getId());
+        verify(eventServiceClient, never()).releaseSeats(anyList());
+    }
+
+    @Test
+    void recoveryCancelsTheKeyOfASagaInterruptedBeforeItsSeatWasReserved() throws Exception {
+        Booking booking = orchestrator.begin(9L, "saga-9");
+        jdbcTemplate.update("UPDATE booking_sagas SET updated_at = DATEADD('MINUTE', -10, updated_at) WHERE booking_id = ?",
+                booking.getId());
+
+        orchestrator.recover();
+
+        assertEquals(SagaStep.COMPENSATED, awaitFinished(booking.getId()).getStep());
+        verify(eventServiceClient).cancelReservation("saga-9", "booking-" + booking.getId());
+    }
+
+    @Test
+    void recoveryConfirmsAPaidSagaLeftBehindByACrash() throws Exception {
+        Booking booking = orchestrator.begin(4L, "saga-4");
+        BookingSaga saga = sagaRepository.findById(booking.getId()).orElseThrow();
+        saga.setSeatReserved(true);
+        saga.setPaymentAttempted(true);
+        saga.setPaymentId(5L);
+        saga.setStep(SagaStep.PAID);
+        sagaRepository.save(saga);
+        jdbcTemplate.update("UPDATE booking_sagas SET updated_at = DATEADD('MINUTE', -10, updated_at) WHERE booking_id = ?",
+                booking.getId());
+
+        orchestrator.recover();
+
+        assertEquals(SagaStep.CONFIRMED, awaitFinished(booking.getId()).getStep());
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void queuedSagaIsLeftAloneUntilAWorkerPicksItUp() throws Exception {
+        when(eventServiceClient.reserveSeat(eq("saga-5"), anyString())).thenReturn(true);
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment(6L, "COMPLETED"));
+
+        Booking booking = orchestrator.beginQueued(5L, "saga-5");
+        jdbcTemplate.update("UPDATE booking_sagas SET updated_at = DATEADD('MINUTE', -10, updated_at) WHERE booking_id = ?",
+                booking.getId());
+
+        orchestrator.recover();
+        assertEquals(SagaStep.QUEUED, sagaRepository.findById(booking.getId()).orElseThrow().getStep());
+
+        orchestrator.execute(booking);
+        assertEquals(SagaStep.CONFIRMED, sagaRepository.findById(booking.getId()).orElseThrow().getStep());
+        assertEquals(BookingStatus.CONFIRMED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void saveBasedOnARowRecoveryClaimedFails() {
+        Booking booking = orchestrator.begin(6L, "saga-6");
+        BookingSaga workerCopy = sagaRepository.findById(booking.getId()).orElseThrow();
+
+        assertEquals(1, sagaRepository.claim(booking.getId(), workerCopy.getUpdatedAt(), LocalDateTime.now()));
+
+        workerCopy.setStep(SagaStep.SEAT_RESERVED);
+        assertThrows(OptimisticLockingFailureException.class, () -> sagaRepository.save(workerCopy));
+        assertEquals(SagaStep.STARTED, sagaRepository.findById(booking.getId()).orElseThrow().getStep());
+    }
+
+    @Test
+    void recoveryRacingAnInProcessCompensationReleasesTheSeatOnce() throws Exception {
+        CountDownLatch releasing = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        when(eventServiceClient.reserveSeat(eq("saga-7"), anyString())).thenReturn(true);
+        when(paymentServiceClient.processPayment(any())).thenReturn(payment(null, "FAILED"));
+        when(paymentServiceClient.getPaymentsByBooking(any())).thenReturn(List.of());
+        when(eventServiceClient.releaseSeats(anyList())).thenAnswer(inv -> {
+            releasing.countDown();
+            proceed.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        Booking booking = orchestrator.begin(7L, "saga-7");
+        assertThrows(RuntimeException.class, () -> orchestrator.execute(booking));
+        assertTrue(releasing.await(5, TimeUnit.SECONDS));
+
+        // The in-process compensation is mid-release; a scan (here or on another instance) must not start another.
+        orchestrator.recover();
+        proceed.countDown();
+
+        assertEquals(SagaStep.COMPENSATED, awaitFinished(booking.getId()).getStep());
+        orchestrator.recover();
+        Thread.sleep(200);
+        verify(eventServiceClient, times(1)).releaseSeats(anyList());
+    }
+
+    @Test
+    void compensationFromAnOutdatedCopyStopsBeforeReleasing() throws Exception {
+        when(paymentServiceClient.getPaymentsByBooking(any())).thenReturn(List.of());
+        when(eventServiceClient.releaseSeats(anyList())).thenReturn(true);
+        Booking booking = orchestrator.begin(8L, "saga-8");
+        BookingSaga saga = sagaRepository.findById(booking.getId()).orElseThrow();
+        saga.setSeatReserved(true);
+        saga.setStep(SagaStep.COMPENSATING);
+        sagaRepository.save(saga);
+        // Compensation was handed over without a lease (as the reaper does for possibly charged bookings).
+        jdbcTemplate.update("UPDATE booking_sagas SET updated_at = DATEADD('MINUTE', -10, updated_at) WHERE booking_id = ?",
+                booking.getId());
+
+        // Two scans race for it; only the one that claimed the row gets to release the seat.
+        orchestrator.recover();
+        orchestrator.recover();
+
+        assertEquals(SagaStep.COMPENSATED, awaitFinished(booking.getId()).getStep());
+        Thread.sleep(200);
+        verify(eventServiceClient, times(1)).releaseSeats(anyList());
+    }
+
+    private BookingSaga awaitFinished(Long bookingId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        BookingSaga saga = sagaRepository.findById(bookingId).orElseThrow();
+        while (!saga.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            saga = sagaRepository.findById(bookingId).orElseThrow();
+        }
+        return saga;
+    }
+
+    private PaymentResponse payment(Long id, String status) {
+        PaymentResponse payment = new PaymentResponse();
+        payment.setId(id);
+        payment.setStatus(status);
+        return payment;
+    }
+}
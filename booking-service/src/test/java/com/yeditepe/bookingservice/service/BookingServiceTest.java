@@ -0,0 +1,118 @@
+package com.yeditepe.bookingservice.service;
+
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.client.PaymentServiceClient;
+import com.yeditepe.bookingservice.client.UserServiceClient;
+import com.yeditepe.bookingservice.dto.BookingRequest;
+import com.yeditepe.bookingservice.dto.BookingResponse;
+import com.yeditepe.bookingservice.dto.EventStockResponse;
+import com.yeditepe.bookingservice.dto.PaymentResponse;
+import com.yeditepe.bookingservice.entity.BookingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {"eureka.client.enabled=false", "booking.user-validation.enabled=true"})
+class BookingServiceTest {
+
+    private static final long DELAY_MS = 300;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private EventServiceClient eventServiceClient;
+
+    @MockBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void userValidationAndStockCheckRunConcurrently() {
+        when(userServiceClient.validateUser(anyLong(), any())).thenAnswer(inv -> {
+            Thread.sleep(DELAY_MS);
+            return true;
+        });
+        when(eventServiceClient.checkStock(anyString())).thenAnswer(inv -> {
+            Thread.sleep(DELAY_MS);
+            return new EventStockResponse(inv.getArgument(0), 10, true);
+        });
+        when(eventServiceClient.reserveSeat(anyString(), anyString())).thenReturn(true);
+        when(paymentServiceClient.processPayment(any())).thenReturn(completedPayment());
+
+        long start = System.nanoTime();
+        BookingResponse response = bookingService.createBooking(new BookingRequest(1L, "event-1"), null).join();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(BookingStatus.CONFIRMED, response.getStatus());
+        assertTrue(elapsedMs < 2 * DELAY_MS, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void invalidUserStopsTheBookingBeforeTheSeatIsReserved() {
+        when(userServiceClient.validateUser(anyLong(), any())).thenReturn(false);
+        when(eventServiceClient.checkStock(anyString())).thenReturn(new EventStockResponse("event-2", 10, true));
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> bookingService.createBooking(new BookingRequest(2L, "event-2"), null).join());
+
+        assertEquals("User service unavailable or user invalid", ex.getCause().getMessage());
+        verify(eventServiceClient, never()).reserveSeat(anyString(), anyString());
+    }
+
+    @Test
+    void asyncBookingIsAcceptedAsPendingAndConfirmedByAWorker() throws Exception {
+        when(userServiceClient.validateUser(anyLong(), any())).thenReturn(true);
+        when(eventServiceClient.reserveSeat(eq("event-3"), anyString())).thenReturn(true);
+        when(paymentServiceClient.processPayment(any())).thenReturn(completedPayment());
+
+        BookingResponse accepted = bookingService.acceptBooking(new BookingRequest(3L, "event-3"), null);
+
+        assertEquals(BookingStatus.PENDING, accepted.getStatus());
+        assertEquals(BookingStatus.CONFIRMED, awaitFinalStatus(accepted.getId()));
+    }
+
+    @Test
+    void asyncBookingIsCancelledWhenNoSeatIsLeft() throws Exception {
+        when(userServiceClient.validateUser(anyLong(), any())).thenReturn(true);
+        when(eventServiceClient.reserveSeat(eq("event-4"), anyString())).thenReturn(false);
+
+        BookingResponse accepted = bookingService.acceptBooking(new BookingRequest(4L, "event-4"), null);
+
+        assertEquals(BookingStatus.CANCELLED, awaitFinalStatus(accepted.getId()));
+        verify(paymentServiceClient, never()).processPayment(any());
+    }
+
+    private BookingStatus awaitFinalStatus(Long bookingId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        BookingStatus status = bookingService.getBookingById(bookingId).getStatus();
+        while (status == BookingStatus.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = bookingService.getBookingById(bookingId).getStatus();
+        }
+        return status;
+    }
+
+    private PaymentResponse completedPayment() {
+        PaymentResponse payment = new PaymentResponse();
+        payment.setStatus("COMPLETED");
+        return payment;
+    }
+}
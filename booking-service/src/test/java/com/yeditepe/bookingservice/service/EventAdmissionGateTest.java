@@ -0,0 +1,98 @@
+package com.yeditepe.bookingservice.service;
+
+import com.yeditepe.bookingservice.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventAdmissionGateTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1_000_000));
+
+    // 10 bookings per second per event, burst of 5, at most 10 s in the waiting room.
+    private final EventAdmissionGate gate = new EventAdmissionGate(new SimpleMeterRegistry(), true,
+            10, 5, 10, 30, 5, "test-secret", 1_000, now::get);
+
+    @Test
+    void burstIsAdmittedThenCallersGetTicketsForLaterSlots() {
+        for (int i = 0; i < 5; i++) {
+            gate.admit("hot", null);
+        }
+        AdmissionRejectedException queued = assertThrows(AdmissionRejectedException.class, () -> gate.admit("hot", null));
+        assertFalse(queued.isSoldOut());
+        assertNotNull(queued.getTicket());
+        assertEquals(100, queued.getRetryAfter().toMillis());
+
+        // Other events are not affected by the hot one.
+        assertDoesNotThrow(() -> gate.admit("quiet", null));
+    }
+
+    @Test
+    void ticketIsRedeemedOnlyOnceAndNotBeforeItsSlot() {
+        for (int i = 0; i < 5; i++) {
+            gate.admit("hot", null);
+        }
+        String ticket = assertThrows(AdmissionRejectedException.class, () -> gate.admit("hot", null)).getTicket();
+
+        AdmissionRejectedException early = assertThrows(AdmissionRejectedException.class, () -> gate.admit("hot", ticket));
+        assertEquals(ticket, early.getTicket());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertDoesNotThrow(() -> gate.admit("hot", ticket));
+        // A reused ticket is ignored, so the caller goes back through the limiter.
+        assertNotNull(assertThrows(AdmissionRejectedException.class, () -> gate.admit("hot", ticket)).getTicket());
+    }
+
+    @Test
+    void waitingRoomIsBoundedByMaxWait() {
+        int admittedOrQueued = 0;
+        AdmissionRejectedException full = null;
+        for (int i = 0; i < 1000 && full == null; i++) {
+            try {
+                gate.admit("hot", null);
+                admittedOrQueued++;
+            } catch (AdmissionRejectedException e) {
+                if (e.getTicket() == null) {
+                    full = e;
+                } else {
+                    admittedOrQueued++;
+                }
+            }
+        }
+        assertNotNull(full);
+        assertNull(full.getTicket());
+        // 5 burst slots plus 10 s worth of queued slots at 10/s.
+        assertEquals(105, admittedOrQueued);
+    }
+
+    @Test
+    void soldOutEventIsRejectedUntilTheTtlRunsOut() {
+        gate.markSoldOut("gone");
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class, () -> gate.admit("gone", null));
+        assertTrue(rejected.isSoldOut());
+        assertEquals(5, rejected.getRetryAfter().toSeconds());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertDoesNotThrow(() -> gate.admit("gone", null));
+    }
+
+    @Test
+    void randomEventIdsCannotGrowTheGateWithoutBound() {
+        for (int i = 0; i < 20_000; i++) {
+            gate.admit("random-" + i, null);
+        }
+
+        assertTrue(gate.trackedEvents() <= 1_000, "tracked " + gate.trackedEvents() + " events");
+    }
+}
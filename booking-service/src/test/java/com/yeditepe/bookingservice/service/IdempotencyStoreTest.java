@@ -0,0 +1,60 @@
+package com.yeditepe.bookingservice.service;
+
+import com.yeditepe.bookingservice.dto.BookingResponse;
+import com.yeditepe.bookingservice.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 1000, 60);
+
+    @Test
+    void concurrentDuplicatesShareOneExecution() {
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<BookingResponse> pending = new CompletableFuture<>();
+
+        CompletableFuture<BookingResponse> first = store.execute("k1", "req", () -> {
+            executions.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<BookingResponse> duplicate = store.execute("k1", "req", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(new BookingResponse());
+        });
+
+        BookingResponse booking = new BookingResponse();
+        pending.complete(booking);
+
+        assertSame(booking, first.join());
+        assertSame(booking, duplicate.join());
+        assertSame(booking, store.execute("k1", "req", CompletableFuture::new).join());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void keyReusedWithDifferentRequestIsRejected() {
+        store.execute("k2", "req-a", () -> CompletableFuture.completedFuture(new BookingResponse()));
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("k2", "req-b", () -> CompletableFuture.completedFuture(new BookingResponse())));
+    }
+
+    @Test
+    void failedExecutionCanBeRetried() {
+        CompletableFuture<BookingResponse> failed = store.execute("k3", "req",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("Event is sold out")));
+        assertThrows(CompletionException.class, failed::join);
+
+        BookingResponse booking = new BookingResponse();
+        assertSame(booking, store.execute("k3", "req", () -> CompletableFuture.completedFuture(booking)).join());
+    }
+}
@@ -0,0 +1,200 @@
+package com.yeditepe.bookingservice.service;
+
+import com.yeditepe.bookingservice.client.EventServiceClient;
+import com.yeditepe.bookingservice.client.PaymentServiceClient;
+import com.yeditepe.bookingservice.client.UserServiceClient;
+import com.yeditepe.bookingservice.dto.SeatRequest;
+import com.yeditepe.bookingservice.entity.Booking;
+import com.yeditepe.bookingservice.entity.BookingSaga;
+import com.yeditepe.bookingservice.entity.BookingStatus;
+import com.yeditepe.bookingservice.entity.SagaStep;
+import com.yeditepe.bookingservice.repository.BookingRepository;
+import com.yeditepe.bookingservice.repository.BookingSagaRepository;
+import com.yeditepe.bookingservice.repository.ReaperLeaseRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Its own database: reapers scheduled in other cached test contexts would otherwise hold the leases.
+@SpringBootTest(properties = {
+        "eureka.client.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:reaperdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "booking.reaper.initial-delay-ms=3600000",
+        "booking.saga.recovery-interval-ms=3600000"})
+class PendingBookingReaperTest {
+
+    @Autowired
+    private PendingBookingReaper reaper;
+
+    @Autowired
+    private BookingSagaOrchestrator orchestrator;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingSagaRepository sagaRepository;
+
+    @Autowired
+    private ReaperLeaseRepository leaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private UserServiceClient userServiceClient;
+
+    @MockBean
+    private EventServiceClient eventServiceClient;
+
+    @MockBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @Test
+    void stalePendingBookingsAreCancelledAndTheirSeatsReleasedPerEvent() {
+        when(eventServiceClient.releaseSeats(anyList())).thenReturn(true);
+
+        Booking legacy1 = stale(legacyBooking("reap-a"));
+        Booking legacy2 = stale(legacyBooking("reap-a"));
+        Booking reserved = stale(sagaBooking("reap-a", true, false));
+        Booking notReserved = stale(sagaBooking("reap-b", false, false));
+        Booking charged = stale(sagaBooking("reap-c", true, true));
+        Booking fresh = legacyBooking("reap-a");
+
+        reaper.reap();
+
+        Map<String, Integer> released = releasedSeats();
+        assertEquals(3, released.get("reap-a"));
+        assertNull(released.get("reap-b"));
+        assertNull(released.get("reap-c"));
+        // Its reserve may still have been in flight; cancelling the key gives back whatever it took.
+        verify(eventServiceClient).cancelReservation("reap-b", "booking-" + notReserved.getId());
+        for (Booking booking : new Booking[]{legacy1, legacy2, reserved, notReserved}) {
+            assertEquals(BookingStatus.CANCELLED, statusOf(booking));
+            BookingSaga saga = sagaRepository.findById(booking.getId()).orElseThrow();
+            assertEquals(SagaStep.COMPENSATED, saga.getStep());
+            assertFalse(saga.isSeatReserved());
+        }
+        // A possibly charged booking is left for saga recovery, which also refunds.
+        assertEquals(BookingStatus.PENDING, statusOf(charged));
+        assertEquals(SagaStep.COMPENSATING, sagaRepository.findById(charged.getId()).orElseThrow().getStep());
+        assertEquals(BookingStatus.PENDING, statusOf(fresh));
+    }
+
+    @Test
+    void partitionsLeasedByAnotherInstanceAreSkipped() {
+        when(eventServiceClient.releaseSeats(anyList())).thenReturn(true);
+        Booking booking = stale(legacyBooking("reap-d"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int partition = 0; partition < 16; partition++) {
+            assertEquals(1, leaseRepository.acquire(partition, "other-instance", now, now.plusSeconds(60)));
+        }
+
+        reaper.reap();
+        assertEquals(BookingStatus.PENDING, statusOf(booking));
+
+        leaseRepository.releaseAll("other-instance");
+        reaper.reap();
+        assertEquals(BookingStatus.CANCELLED, statusOf(booking));
+        assertEquals(Map.of("reap-d", 1), releasedSeats());
+    }
+
+    @Test
+    void aFullBatchOfCompensatingSagasDoesNotStallTheRun() {
+        when(eventServiceClient.releaseSeats(anyList())).thenReturn(true);
+        // More than one batch (500) of bookings whose saga recovery already owns the compensation.
+        for (int i = 0; i < 501; i++) {
+            orchestrator.begin(1L, "reap-e");
+        }
+        jdbcTemplate.update("UPDATE booking_sagas SET step = 'COMPENSATING', next_attempt_at = DATEADD('HOUR', 1, CURRENT_TIMESTAMP) " +
+                "WHERE event_id = 'reap-e'");
+        jdbcTemplate.update("UPDATE bookings SET booking_date = DATEADD('HOUR', -2, booking_date) WHERE event_id = 'reap-e'");
+        Booking behind = stale(legacyBooking("reap-f"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> reaper.reap());
+
+        assertEquals(BookingStatus.CANCELLED, statusOf(behind));
+        assertEquals(Map.of("reap-f", 1), releasedSeats());
+    }
+
+    @Test
+    void eachSeatIsReleasedUnderItsBookingsKeyWhileRecoveryIsHeldOff() {
+        Booking first = stale(sagaBooking("reap-g", true, false));
+        Booking second = stale(sagaBooking("reap-g", true, false));
+        Map<Long, LocalDateTime> guardDuringCall = new HashMap<>();
+        when(eventServiceClient.releaseSeats(anyList())).thenAnswer(inv -> {
+            for (Booking booking : List.of(first, second)) {
+                guardDuringCall.put(booking.getId(), sagaRepository.findById(booking.getId()).orElseThrow().getNextAttemptAt());
+            }
+            return true;
+        });
+
+        LocalDateTime before = LocalDateTime.now();
+        reaper.reap();
+
+        List<SeatRequest> releases = releases();
+        assertEquals(2, releases.size());
+        assertTrue(releases.stream().anyMatch(r -> ("booking-" + first.getId()).equals(r.getReleaseKey())));
+        assertTrue(releases.stream().anyMatch(r -> ("booking-" + second.getId()).equals(r.getReleaseKey())));
+        // Saga recovery was held off (default 60 s lease) for as long as the release was in flight.
+        guardDuringCall.values().forEach(guard -> assertTrue(guard.isAfter(before.plusSeconds(55)), "guard " + guard));
+        assertEquals(SagaStep.COMPENSATED, sagaRepository.findById(first.getId()).orElseThrow().getStep());
+    }
+
+    private List<SeatRequest> releases() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SeatRequest>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventServiceClient, atLeast(0)).releaseSeats(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private Map<String, Integer> releasedSeats() {
+        Map<String, Integer> seats = new HashMap<>();
+        releases().forEach(r -> seats.merge(r.getEventId(), r.getCount(), Integer::sum));
+        return seats;
+    }
+
+    private Booking legacyBooking(String eventId) {
+        Booking booking = new Booking(null, 1L, eventId, BookingStatus.PENDING, LocalDateTime.now());
+        return bookingRepository.save(booking);
+    }
+
+    private Booking sagaBooking(String eventId, boolean seatReserved, boolean paymentAttempted) {
+        Booking booking = orchestrator.begin(1L, eventId);
+        BookingSaga saga = sagaRepository.findById(booking.getId()).orElseThrow();
+        saga.setSeatReserved(seatReserved);
+        saga.setPaymentAttempted(paymentAttempted);
+        saga.setStep(paymentAttempted ? SagaStep.PAYMENT_ATTEMPTED : seatReserved ? SagaStep.SEAT_RESERVED : SagaStep.STARTED);
+        sagaRepository.save(saga);
+        return booking;
+    }
+
+    private Booking stale(Booking booking) {
+        jdbcTemplate.update("UPDATE bookings SET booking_date = DATEADD('HOUR', -1, booking_date) WHERE id = ?",
+                booking.getId());
+        return booking;
+    }
+
+    private BookingStatus statusOf(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+}
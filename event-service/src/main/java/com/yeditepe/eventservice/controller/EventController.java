@@ -1,27 +1,57 @@
 package com.yeditepe.eventservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yeditepe.eventservice.dto.CursorPage;
 import com.yeditepe.eventservice.dto.EventRequest;
 import com.yeditepe.eventservice.dto.EventResponse;
+import com.yeditepe.eventservice.dto.HoldResponse;
+import com.yeditepe.eventservice.dto.ImportResult;
+import com.yeditepe.eventservice.dto.SeatRequest;
 import com.yeditepe.eventservice.dto.StockResponse;
+import com.yeditepe.eventservice.service.EventImportService;
 import com.yeditepe.eventservice.service.EventService;
+import com.yeditepe.eventservice.service.SeatHoldService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/events")
 @Validated
 public class EventController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private static final String CSV_VALUE = "text/csv";
+    private static final int MAX_STOCK_BATCH = 1000;
+
     private final EventService eventService;
+    private final SeatHoldService seatHoldService;
+    private final EventImportService eventImportService;
+    private final ObjectMapper objectMapper;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, SeatHoldService seatHoldService,
+                           EventImportService eventImportService, ObjectMapper objectMapper) {
         this.eventService = eventService;
+        this.seatHoldService = seatHoldService;
+        this.eventImportService = eventImportService;
+        this.objectMapper = objectMapper;
     }
 
     // GET /events?category=...&venue=...&from=...&to=...
@@ -37,10 +67,63 @@ public class EventController {
             LocalDateTime to) {
 
         List<EventResponse> events =
-                eventService.getAllEvents();
+                eventService.getEvents(category, venue, from, to);
         return ResponseEntity.ok(events);
     }
+
+    // GET /events/page?category=...&cursor=...&size=50
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<EventResponse>> getEventsPage(
+            @RequestParam(name = "category", required = false) String category,
+            @RequestParam(name = "venue", required = false) String venue,
+            @RequestParam(name = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam(name = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime to,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(eventService.getEventsPage(category, venue, from, to, cursor, size));
+    }
+
+    // GET /events/stream?category=... — one JSON object per line
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEvents(
+            @RequestParam(name = "category", required = false) String category,
+            @RequestParam(name = "venue", required = false) String venue,
+            @RequestParam(name = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+            @RequestParam(name = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime to) {
+
+        StreamingResponseBody body = out -> eventService.streamEvents(category, venue, from, to, ndjson(out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    // GET /events/search?q=rock ist&limit=20 — last word matches as a prefix
+    @GetMapping("/search")
+    public ResponseEntity<List<EventResponse>> searchEvents(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "limit", defaultValue = "20") int limit) {
+
+        return ResponseEntity.ok(eventService.searchEvents(query, limit));
+    }
 //ab5566
+    // POST /events/import  (Content-Type: text/csv or application/x-ndjson)
+    @PostMapping(value = "/import", consumes = {CSV_VALUE, NDJSON_VALUE})
+    public ResponseEntity<ImportResult> importEvents(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+
+        boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON_VALUE));
+        ImportResult result = ndjson ? eventImportService.importNdjson(body) : eventImportService.importCsv(body);
+        return ResponseEntity.ok(result);
+    }
+
     // GET /events/{id}
     @GetMapping("/{id}")
     public ResponseEntity<EventResponse> getEventById(@PathVariable(name = "id") String id) {
@@ -77,23 +160,104 @@ public class EventController {
     // GET /api/events/{id}/stock
     @GetMapping("/{id}/stock")
     public ResponseEntity<StockResponse> checkStock(@PathVariable(name = "id") String id) {
-        Integer availableSeats = eventService.getAvailableSeats(id);
-        boolean hasStock = eventService.checkStock(id);
-        
-        return ResponseEntity.ok(new StockResponse(id, availableSeats, hasStock));
+        return ResponseEntity.ok(eventService.getStock(id));
     }
 
-    // PUT /api/events/{id}/reserve
+    // POST /api/events/stock  body: ["id1", "id2", ...]
+    @PostMapping("/stock")
+    public ResponseEntity<List<StockResponse>> checkStock(
+            @RequestBody @Size(max = MAX_STOCK_BATCH) List<@NotBlank String> ids) {
+        return ResponseEntity.ok(eventService.getStock(ids));
+    }
+
+    // PUT /api/events/{id}/reserve?count=n
     @PutMapping("/{id}/reserve")
-    public ResponseEntity<Boolean> reserveSeat(@PathVariable(name = "id") String id) {
-        boolean reserved = eventService.reserveSeat(id);
+    public ResponseEntity<Boolean> reserveSeat(
+            @PathVariable(name = "id") String id,
+            @RequestParam(name = "count", defaultValue = "1") @Min(1) int count) {
+        boolean reserved = eventService.reserveSeats(id, count);
         return ResponseEntity.ok(reserved);
     }
 
-    // PUT /api/events/{id}/release
+    // PUT /api/events/{id}/reserve-up-to?count=n — reserves what is left (up to n), returns how many
+    @PutMapping("/{id}/reserve-up-to")
+    public ResponseEntity<Integer> reserveSeatsUpTo(
+            @PathVariable(name = "id") String id,
+            @RequestParam(name = "count", defaultValue = "1") @Min(1) int count) {
+        return ResponseEntity.ok(eventService.reserveSeatsUpTo(id, count));
+    }
+
+    // PUT /api/events/{id}/reservations  ["key-1", "key-2", ...] — one seat per key while seats last; repeats answer as before
+    @PutMapping("/{id}/reservations")
+    public ResponseEntity<List<Boolean>> reserveSeatsUnderKeys(
+            @PathVariable(name = "id") String id,
+            @RequestBody @Size(min = 1, max = 500) List<@NotBlank @Size(max = 100) String> keys) {
+        return ResponseEntity.ok(eventService.reserveSeats(id, keys));
+    }
+
+    // DELETE /api/events/{id}/reservations/{key} — gives back what the key reserved (once); returns the seat count
+    @DeleteMapping("/{id}/reservations/{key}")
+    public ResponseEntity<Integer> cancelReservation(
+            @PathVariable(name = "id") String id,
+            @PathVariable(name = "key") @Size(max = 100) String key) {
+        return ResponseEntity.ok(eventService.cancelReservation(id, key));
+    }
+
+    // PUT /api/events/{id}/release?count=n
     @PutMapping("/{id}/release")
-    public ResponseEntity<Boolean> releaseSeat(@PathVariable(name = "id") String id) {
-        boolean released = eventService.releaseSeat(id);
+    public ResponseEntity<Boolean> releaseSeat(
+            @PathVariable(name = "id") String id,
+            @RequestParam(name = "count", defaultValue = "1") @Min(1) int count) {
+        boolean released = eventService.releaseSeats(id, count);
+        return ResponseEntity.ok(released);
+    }
+
+    // PUT /api/events/reserve  [{eventId, count}, ...] — all-or-nothing
+    @PutMapping("/reserve")
+    public ResponseEntity<Boolean> reserveSeats(@RequestBody List<@Valid SeatRequest> requests) {
+        boolean reserved = eventService.reserveSeats(requests);
+        return ResponseEntity.ok(reserved);
+    }
+
+    // PUT /api/events/release  [{eventId, count}, ...] — all-or-nothing
+    @PutMapping("/release")
+    public ResponseEntity<Boolean> releaseSeats(@RequestBody List<@Valid SeatRequest> requests) {
+        boolean released = eventService.releaseSeats(requests);
         return ResponseEntity.ok(released);
     }
+
+    // POST /api/events/{id}/holds?count=n&ttlSeconds=s
+    @PostMapping("/{id}/holds")
+    public ResponseEntity<HoldResponse> holdSeats(
+            @PathVariable(name = "id") String id,
+            @RequestParam(name = "count", defaultValue = "1") @Min(1) int count,
+            @RequestParam(name = "ttlSeconds", required = false) Long ttlSeconds) {
+        return seatHoldService.hold(id, count, ttlSeconds)
+                .map(hold -> ResponseEntity.status(HttpStatus.CREATED).body(hold))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    // PUT /api/events/holds/{holdId}/confirm
+    @PutMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<HoldResponse> confirmHold(@PathVariable(name = "holdId") String holdId) {
+        return ResponseEntity.ok(seatHoldService.confirm(holdId));
+    }
+
+    // DELETE /api/events/holds/{holdId}
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> cancelHold(@PathVariable(name = "holdId") String holdId) {
+        seatHoldService.cancel(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private <T> Consumer<T> ndjson(OutputStream out) {
+        return item -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
 }
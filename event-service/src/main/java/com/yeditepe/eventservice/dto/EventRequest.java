@@ -24,6 +24,12 @@ public class EventRequest {
     @Min(0)
     private BigDecimal price;
 
+    @Size(max = 100)
+    private String category;
+
+    @Size(max = 255)
+    private String venue;
+
     public EventRequest() {
     }
 
@@ -58,4 +64,20 @@ public class EventRequest {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public void setVenue(String venue) {
+        this.venue = venue;
+    }
 }
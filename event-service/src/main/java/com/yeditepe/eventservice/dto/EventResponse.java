@@ -10,16 +10,21 @@ public class EventResponse {
     private LocalDateTime date;
     private Integer availableSeats;
     private BigDecimal price;
+    private String category;
+    private String venue;
 
     public EventResponse() {
     }
 
-    public EventResponse(String id, String title, LocalDateTime date, Integer availableSeats, BigDecimal price) {
+    public EventResponse(String id, String title, LocalDateTime date, Integer availableSeats, BigDecimal price,
+                         String category, String venue) {
         this.id = id;
         this.title = title;
         this.date = date;
         this.availableSeats = availableSeats;
         this.price = price;
+        this.category = category;
+        this.venue = venue;
     }
 
     public String getId() {
@@ -61,4 +66,20 @@ public class EventResponse {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public void setVenue(String venue) {
+        this.venue = venue;
+    }
 }
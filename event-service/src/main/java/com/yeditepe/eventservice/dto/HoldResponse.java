@@ -0,0 +1,17 @@
+package com.yeditepe.eventservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+    private String holdId;
+    private String eventId;
+    private Integer count;
+    private LocalDateTime expiresAt;
+}
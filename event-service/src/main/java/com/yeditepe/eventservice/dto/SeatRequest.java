@@ -0,0 +1,30 @@
+package com.yeditepe.eventservice.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatRequest {
+
+    @NotBlank
+    private String eventId;
+
+    @NotNull
+    @Min(1)
+    private Integer count;
+
+    // Optional on release: a key that was already applied is skipped, so a retried release is a no-op.
+    @Size(max = 100)
+    private String releaseKey;
+
+    public SeatRequest(String eventId, Integer count) {
+        this(eventId, count, null);
+    }
+}
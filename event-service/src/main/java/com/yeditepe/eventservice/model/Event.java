@@ -2,12 +2,18 @@ package com.yeditepe.eventservice.model;
 
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "events")
-public class Event {
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_date", columnList = "date"),
+        @Index(name = "idx_events_category_date", columnList = "category, date"),
+        @Index(name = "idx_events_venue_date", columnList = "venue, date")
+})
+public class Event implements Persistable<String> {
 
     @Id
     private String id;
@@ -24,6 +30,16 @@ public class Event {
     @Column(name = "price")
     private BigDecimal price;
 
+    @Column(name = "category", length = 100)
+    private String category;
+
+    @Column(name = "venue")
+    private String venue;
+
+    // Ids are assigned by us, so without this save() would SELECT before every insert.
+    @Transient
+    private boolean isNew = true;
+
     public Event() {
     }
 
@@ -35,6 +51,13 @@ public class Event {
         this.price = price;
     }
 
+    public Event(String id, String title, LocalDateTime date, Integer availableSeats, BigDecimal price,
+                 String category, String venue) {
+        this(id, title, date, availableSeats, price);
+        this.category = category;
+        this.venue = venue;
+    }
+
     // Getters & Setters
 
     public String getId() {
@@ -76,4 +99,31 @@ public class Event {
     public void setPrice(BigDecimal price) {
         this.price = price;
     }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public void setVenue(String venue) {
+        this.venue = venue;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
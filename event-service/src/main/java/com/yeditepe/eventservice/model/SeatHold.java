@@ -0,0 +1,96 @@
+package com.yeditepe.eventservice.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "seat_holds", indexes = {
+        @Index(name = "idx_seat_holds_expires_at", columnList = "expires_at")
+})
+public class SeatHold implements Persistable<String> {
+
+    @Id
+    private String id;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Holds get their id up front; this lets save() insert directly instead of merging.
+    @Transient
+    private boolean isNew = true;
+
+    public SeatHold() {
+    }
+
+    public SeatHold(String id, String eventId, Integer seatCount, LocalDateTime expiresAt, LocalDateTime createdAt) {
+        this.id = id;
+        this.eventId = eventId;
+        this.seatCount = seatCount;
+        this.expiresAt = expiresAt;
+        this.createdAt = createdAt;
+    }
+
+    // Getters & Setters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public Integer getSeatCount() {
+        return seatCount;
+    }
+
+    public void setSeatCount(Integer seatCount) {
+        this.seatCount = seatCount;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
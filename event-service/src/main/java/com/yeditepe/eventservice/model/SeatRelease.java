@@ -0,0 +1,68 @@
+package com.yeditepe.eventservice.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// A keyed seat release that has been applied; the primary key makes a repeat of it fail instead of releasing twice.
+@Entity
+@Table(name = "seat_releases", indexes = {
+        @Index(name = "idx_seat_releases_released_at", columnList = "released_at")
+})
+public class SeatRelease implements Persistable<String> {
+
+    @Id
+    @Column(name = "release_key", length = 100)
+    private String releaseKey;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+
+    @Column(name = "released_at", nullable = false)
+    private LocalDateTime releasedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public SeatRelease() {
+    }
+
+    public SeatRelease(String releaseKey, String eventId, Integer seatCount, LocalDateTime releasedAt) {
+        this.releaseKey = releaseKey;
+        this.eventId = eventId;
+        this.seatCount = seatCount;
+        this.releasedAt = releasedAt;
+    }
+
+    @Override
+    public String getId() {
+        return releaseKey;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public Integer getSeatCount() {
+        return seatCount;
+    }
+
+    public LocalDateTime getReleasedAt() {
+        return releasedAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.yeditepe.eventservice.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// What a keyed reserve got (0 or more seats); a repeat of the key answers from here instead of reserving again.
+@Entity
+@Table(name = "seat_reservations", indexes = {
+        @Index(name = "idx_seat_reservations_reserved_at", columnList = "reserved_at")
+})
+public class SeatReservation implements Persistable<String> {
+
+    @Id
+    @Column(name = "reservation_key", length = 100)
+    private String reservationKey;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+
+    @Column(name = "reserved_at", nullable = false)
+    private LocalDateTime reservedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public SeatReservation() {
+    }
+
+    public SeatReservation(String reservationKey, String eventId, Integer seatCount, LocalDateTime reservedAt) {
+        this.reservationKey = reservationKey;
+        this.eventId = eventId;
+        this.seatCount = seatCount;
+        this.reservedAt = reservedAt;
+    }
+
+    @Override
+    public String getId() {
+        return reservationKey;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public Integer getSeatCount() {
+        return seatCount;
+    }
+
+    public LocalDateTime getReservedAt() {
+        return reservedAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
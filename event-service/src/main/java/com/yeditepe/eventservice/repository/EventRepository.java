@@ -1,14 +1,49 @@
 package com.yeditepe.eventservice.repository;
 
 import com.yeditepe.eventservice.model.Event;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, String> {
+public interface EventRepository extends JpaRepository<Event, String>, JpaSpecificationExecutor<Event>,
+        EventRepositoryCustom {
 
     List<Event> findByDateBetween(LocalDateTime from, LocalDateTime to);
 
+    List<Event> findByDateBetween(LocalDateTime from, LocalDateTime to, Sort sort);
+
     List<Event> findByTitleContainingIgnoreCase(String title);
+
+    @Query("SELECT e.id AS id, e.availableSeats AS availableSeats FROM Event e WHERE e.id = :id")
+    Optional<EventSeats> findSeatsById(@Param("id") String id);
+
+    @Query("SELECT e.id AS id, e.availableSeats AS availableSeats FROM Event e WHERE e.id IN :ids")
+    List<EventSeats> findSeatsByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT e.id AS id, e.availableSeats AS availableSeats FROM Event e")
+    List<EventSeats> findAllSeats();
+
+    @Query("SELECT e.id AS id, e.title AS title, e.category AS category, e.venue AS venue FROM Event e")
+    List<EventSearchFields> findAllSearchFields();
+
+    // Conditional decrement: only succeeds if enough seats are left, so concurrent callers can never oversell.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.availableSeats = e.availableSeats - :count " +
+            "WHERE e.id = :id AND e.availableSeats >= :count")
+    int reserveSeats(@Param("id") String id, @Param("count") int count);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Event e SET e.availableSeats = COALESCE(e.availableSeats, 0) + :count WHERE e.id = :id")
+    int releaseSeats(@Param("id") String id, @Param("count") int count);
 }
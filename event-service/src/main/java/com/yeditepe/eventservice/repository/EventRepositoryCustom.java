@@ -0,0 +1,19 @@
+package com.yeditepe.eventservice.repository;
+
+import com.yeditepe.eventservice.model.Event;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface EventRepositoryCustom {
+
+    // Rows ordered by (date, id), read from the JDBC cursor in chunks of fetchSize.
+    // Must be consumed inside a transaction and closed afterwards.
+    Stream<Event> streamByDate(Specification<Event> spec, int fetchSize);
+
+    // One JDBC batch that subtracts seats consumed (negative: given back) from available_seats. Only
+    // that column is touched, and relative to its current value, so other columns edited concurrently
+    // and seats consumed by other instances are left alone.
+    void subtractAvailableSeats(Map<String, Integer> consumedById);
+}
@@ -0,0 +1,16 @@
+package com.yeditepe.eventservice.repository;
+
+/**
+ * Projection with just the searchable text columns, used to rebuild the search index
+ * without loading whole rows.
+ */
+public interface EventSearchFields {
+
+    String getId();
+
+    String getTitle();
+
+    String getCategory();
+
+    String getVenue();
+}
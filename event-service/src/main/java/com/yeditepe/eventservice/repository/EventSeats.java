@@ -0,0 +1,12 @@
+package com.yeditepe.eventservice.repository;
+
+/**
+ * Projection carrying only the seat counter of an event, so availability reads
+ * don't have to load the whole row.
+ */
+public interface EventSeats {
+
+    String getId();
+
+    Integer getAvailableSeats();
+}
@@ -0,0 +1,46 @@
+package com.yeditepe.eventservice.repository;
+
+import com.yeditepe.eventservice.model.Event;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalogue filters for {@link EventRepository}. Category and venue are exact matches so the
+ * (category, date) and (venue, date) indexes can serve them; null arguments are ignored.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    public static Specification<Event> matching(String category, String venue,
+                                                LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(4);
+            if (category != null) {
+                predicates.add(cb.equal(root.get("category"), category));
+            }
+            if (venue != null) {
+                predicates.add(cb.equal(root.get("venue"), venue));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), to));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Keyset condition for the (date, id) ordering: everything strictly after the given row.
+    public static Specification<Event> after(LocalDateTime date, String id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("date"), date),
+                cb.and(cb.equal(root.get("date"), date), cb.greaterThan(root.get("id"), id)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.yeditepe.eventservice.repository;
+
+import com.yeditepe.eventservice.model.SeatHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SeatHoldRepository extends JpaRepository<SeatHold, String> {
+
+    // 1 only for the caller that actually removed the row; whoever gets 0 must not touch the seats.
+    @Modifying
+    @Query("DELETE FROM SeatHold h WHERE h.id = :id")
+    int deleteHold(@Param("id") String id);
+
+    // Confirming deletes the row only while the hold is live; once it is due, expiry owns the seats.
+    @Modifying
+    @Query("DELETE FROM SeatHold h WHERE h.id = :id AND h.expiresAt > :now")
+    int confirmHold(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    // Moves a hold whose seats could not be given back past the next sweep, which then tries again.
+    @Modifying
+    @Query("UPDATE SeatHold h SET h.expiresAt = :retryAt WHERE h.id = :id")
+    int postponeHold(@Param("id") String id, @Param("retryAt") LocalDateTime retryAt);
+
+    // Served by idx_seat_holds_expires_at.
+    List<SeatHold> findByExpiresAtBeforeOrderByExpiresAt(LocalDateTime cutoff, Pageable pageable);
+}
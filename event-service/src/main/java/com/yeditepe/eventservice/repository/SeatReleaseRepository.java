@@ -0,0 +1,23 @@
+package com.yeditepe.eventservice.repository;
+
+import com.yeditepe.eventservice.model.SeatRelease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface SeatReleaseRepository extends JpaRepository<SeatRelease, String> {
+
+    @Query("SELECT r.releaseKey FROM SeatRelease r WHERE r.releaseKey IN :keys")
+    List<String> findAppliedKeys(@Param("keys") Collection<String> keys);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SeatRelease r WHERE r.releasedAt < :before")
+    int deleteReleasedBefore(@Param("before") LocalDateTime before);
+}
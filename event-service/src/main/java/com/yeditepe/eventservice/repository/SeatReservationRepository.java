@@ -0,0 +1,18 @@
+package com.yeditepe.eventservice.repository;
+
+import com.yeditepe.eventservice.model.SeatReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface SeatReservationRepository extends JpaRepository<SeatReservation, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SeatReservation r WHERE r.reservedAt < :before")
+    int deleteReservedBefore(@Param("before") LocalDateTime before);
+}
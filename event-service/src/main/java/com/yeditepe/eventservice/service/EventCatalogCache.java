@@ -0,0 +1,44 @@
+package com.yeditepe.eventservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yeditepe.eventservice.dto.EventResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of event metadata (title, date, price, category, venue).
+ * Entries carry no seat count; callers attach a fresh one on every read. Hit, miss and
+ * eviction counters are published under the "eventCatalog" cache name.
+ */
+@Component
+public class EventCatalogCache {
+
+    private final Cache<String, EventResponse> cache;
+
+    public EventCatalogCache(MeterRegistry meterRegistry,
+                             @Value("${event.catalog.cache.maximum-size:10000}") long maximumSize,
+                             @Value("${event.catalog.cache.expire-after-write-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "eventCatalog");
+    }
+
+    // Concurrent misses for the same id share one load; a loader exception is not cached.
+    public EventResponse get(String eventId, Function<String, EventResponse> loader) {
+        return cache.get(eventId, loader);
+    }
+
+    // Blocks on an in-flight load for the same id, so a stale row can't be cached after a write.
+    public void invalidate(String eventId) {
+        cache.invalidate(eventId);
+    }
+}
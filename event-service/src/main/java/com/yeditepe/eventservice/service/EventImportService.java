@@ -0,0 +1,279 @@
+package com.yeditepe.eventservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yeditepe.eventservice.dto.EventRequest;
+import com.yeditepe.eventservice.dto.ImportResult;
+import com.yeditepe.eventservice.model.Event;
+import com.yeditepe.eventservice.repository.EventRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk event import from CSV or NDJSON. Input is read line by line, each row is checked
+ * against the {@link EventRequest} constraints, and valid rows are inserted in batches of
+ * {@code event.import.batch-size}, one transaction per batch, so Hibernate can send them as
+ * JDBC batches. A bad row is reported with its line number and never aborts the file.
+ */
+@Service
+public class EventImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventImportService.class);
+    private static final List<String> REQUIRED_COLUMNS = List.of("title", "date", "availableseats", "price");
+
+    private final EventRepository eventRepository;
+    private final SeatInventoryEngine seatInventoryEngine;
+    private final EventSearchIndex eventSearchIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public EventImportService(EventRepository eventRepository,
+                              SeatInventoryEngine seatInventoryEngine,
+                              EventSearchIndex eventSearchIndex,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${event.import.batch-size:500}") int batchSize,
+                              @Value("${event.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.eventRepository = eventRepository;
+        this.seatInventoryEngine = seatInventoryEngine;
+        this.eventSearchIndex = eventSearchIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // The first non-blank line is the header; columns are matched by name, case-insensitively.
+    public ImportResult importCsv(InputStream in) throws IOException {
+        Batch batch = new Batch();
+        try (BufferedReader reader = reader(in)) {
+            Map<String, Integer> columns = null;
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = splitCsv(line);
+                if (columns == null) {
+                    columns = header(fields);
+                    continue;
+                }
+                batch.received++;
+                try {
+                    batch.add(lineNo, fromCsv(fields, columns));
+                } catch (RuntimeException ex) {
+                    batch.fail(lineNo, "Unreadable row: " + ex.getMessage());
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    public ImportResult importNdjson(InputStream in) throws IOException {
+        Batch batch = new Batch();
+        try (BufferedReader reader = reader(in)) {
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.received++;
+                try {
+                    batch.add(lineNo, objectMapper.readValue(line, EventRequest.class));
+                } catch (JsonProcessingException ex) {
+                    batch.fail(lineNo, "Unreadable row: " + ex.getOriginalMessage());
+                }
+            }
+        }
+        return batch.finish();
+    }
+
+    private BufferedReader reader(InputStream in) {
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private Map<String, Integer> header(List<String> fields) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            columns.put(fields.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain title, date, availableSeats and price");
+            }
+        }
+        return columns;
+    }
+
+    private EventRequest fromCsv(List<String> fields, Map<String, Integer> columns) {
+        EventRequest request = new EventRequest();
+        request.setTitle(column(fields, columns, "title"));
+        String date = column(fields, columns, "date");
+        request.setDate(date != null ? LocalDateTime.parse(date) : null);
+        String seats = column(fields, columns, "availableseats");
+        request.setAvailableSeats(seats != null ? Integer.valueOf(seats) : null);
+        String price = column(fields, columns, "price");
+        request.setPrice(price != null ? new BigDecimal(price) : null);
+        request.setCategory(column(fields, columns, "category"));
+        request.setVenue(column(fields, columns, "venue"));
+        return request;
+    }
+
+    private String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 quoting ("a ""b""", c), one record per line.
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private Event toEvent(EventRequest request) {
+        return new Event(UUID.randomUUID().toString(), request.getTitle(), request.getDate(),
+                request.getAvailableSeats(), request.getPrice(), request.getCategory(), request.getVenue());
+    }
+
+    private void indexed(Event event) {
+        seatInventoryEngine.track(event);
+        eventSearchIndex.index(event);
+    }
+
+    private static String rootMessage(RuntimeException ex) {
+        return NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+    }
+
+    private final class Batch {
+
+        private final ImportResult result = new ImportResult();
+        private final List<Long> lines = new ArrayList<>(batchSize);
+        private final List<Event> events = new ArrayList<>(batchSize);
+        private int received;
+
+        void add(long lineNo, EventRequest request) {
+            Set<ConstraintViolation<EventRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                fail(lineNo, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            lines.add(lineNo);
+            events.add(toEvent(request));
+            if (events.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(long lineNo, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ImportResult.RowError(lineNo, message));
+            }
+        }
+
+        ImportResult finish() {
+            flush();
+            result.setReceived(received);
+            log.info("Event import finished: {} received, {} imported, {} failed",
+                    received, result.getImported(), result.getFailed());
+            return result;
+        }
+
+        private void flush() {
+            if (events.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    eventRepository.saveAll(events);
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                events.forEach(EventImportService.this::indexed);
+                result.setImported(result.getImported() + events.size());
+            } catch (RuntimeException ex) {
+                // Find the offending rows by inserting the batch one row at a time.
+                log.warn("Import batch of {} rows failed, retrying row by row: {}", events.size(), rootMessage(ex));
+                for (int i = 0; i < events.size(); i++) {
+                    Event event = events.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> eventRepository.save(event));
+                        indexed(event);
+                        result.setImported(result.getImported() + 1);
+                    } catch (RuntimeException single) {
+                        fail(lines.get(i), rootMessage(single));
+                    }
+                }
+            } finally {
+                lines.clear();
+                events.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.model.Event;
+import com.yeditepe.eventservice.repository.EventRepository;
+import com.yeditepe.eventservice.repository.EventSearchFields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over event title, category and venue.
+ *
+ * Tokens are kept in a sorted map (token -> event ids) so a prefix lookup is a range scan
+ * over the tokens sharing that prefix; every other query term must match a token exactly.
+ * A second map remembers each event's tokens so an update or delete only touches the
+ * postings it actually changes.
+ */
+@Component
+public class EventSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSearchIndex.class);
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final EventRepository eventRepository;
+
+    private final NavigableMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> tokensByEvent = new ConcurrentHashMap<>();
+
+    public EventSearchIndex(EventRepository eventRepository) {
+        this.eventRepository = eventRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<EventSearchFields> rows = eventRepository.findAllSearchFields();
+        for (EventSearchFields row : rows) {
+            index(row.getId(), row.getTitle(), row.getCategory(), row.getVenue());
+        }
+        log.info("Search index built for {} events ({} distinct tokens)", rows.size(), postings.size());
+    }
+
+    public void index(Event event) {
+        index(event.getId(), event.getTitle(), event.getCategory(), event.getVenue());
+    }
+
+    public void index(String eventId, String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            tokens.addAll(tokenize(field));
+        }
+        // compute() serialises writers of the same event; postings are swapped to the new token set.
+        tokensByEvent.compute(eventId, (id, previous) -> {
+            if (previous != null) {
+                for (String token : previous) {
+                    if (!tokens.contains(token)) {
+                        unpost(token, id);
+                    }
+                }
+            }
+            for (String token : tokens) {
+                post(token, id);
+            }
+            return tokens;
+        });
+    }
+
+    public void remove(String eventId) {
+        tokensByEvent.computeIfPresent(eventId, (id, tokens) -> {
+            tokens.forEach(token -> unpost(token, id));
+            return null;
+        });
+    }
+
+    /**
+     * Ids of events matching every term of the query; the last term also matches as a prefix
+     * so partially typed words hit. Results are in token order, at most {@code limit} of them.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String prefix = terms.remove(terms.size() - 1);
+
+        List<Set<String>> exact = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Set<String> ids = postings.get(term);
+            if (ids == null || ids.isEmpty()) {
+                return Collections.emptyList();
+            }
+            exact.add(ids);
+        }
+
+        Set<String> hits = new LinkedHashSet<>();
+        if (exact.isEmpty()) {
+            for (Set<String> ids : prefixRange(prefix).values()) {
+                for (String id : ids) {
+                    if (hits.add(id) && hits.size() == limit) {
+                        return new ArrayList<>(hits);
+                    }
+                }
+            }
+            return new ArrayList<>(hits);
+        }
+
+        // Walk the smallest exact posting list and probe the others, then check the prefix per candidate.
+        exact.sort(Comparator.comparingInt(Set::size));
+        for (String id : exact.get(0)) {
+            if (matchesAll(id, exact) && hasTokenWithPrefix(id, prefix)) {
+                hits.add(id);
+                if (hits.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(hits);
+    }
+
+    public int size() {
+        return tokensByEvent.size();
+    }
+
+    int tokenCount() {
+        return postings.size();
+    }
+
+    // Adds only to a set still mapped to its token; one unpost() emptied and unlinked meanwhile is
+    // dead, so the add goes round again onto a fresh set. (The skip list's compute() may run its
+    // function more than once and can't see a set changed in place, so it can't do this for us.)
+    private void post(String token, String eventId) {
+        while (true) {
+            Set<String> ids = postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet());
+            synchronized (ids) {
+                if (postings.get(token) == ids) {
+                    ids.add(eventId);
+                    return;
+                }
+            }
+        }
+    }
+
+    // A token's set is unlinked, under its lock, as soon as its last event leaves it.
+    private void unpost(String token, String eventId) {
+        Set<String> ids = postings.get(token);
+        if (ids == null) {
+            return;
+        }
+        synchronized (ids) {
+            if (ids.remove(eventId) && ids.isEmpty()) {
+                postings.remove(token, ids);
+            }
+        }
+    }
+
+    private NavigableMap<String, Set<String>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private boolean matchesAll(String eventId, List<Set<String>> exact) {
+        for (int i = 1; i < exact.size(); i++) {
+            if (!exact.get(i).contains(eventId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasTokenWithPrefix(String eventId, String prefix) {
+        Set<String> tokens = tokensByEvent.get(eventId);
+        if (tokens == null) {
+            return false;
+        }
+        for (String token : tokens) {
+            if (token.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Lower-cased, accents stripped, split on anything that isn't a letter or digit.
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,34 +1,142 @@
 package com.yeditepe.eventservice.service;
 
+import com.yeditepe.eventservice.dto.CursorPage;
 import com.yeditepe.eventservice.dto.EventRequest;
 import com.yeditepe.eventservice.dto.EventResponse;
+import com.yeditepe.eventservice.dto.SeatRequest;
+import com.yeditepe.eventservice.dto.StockResponse;
 import com.yeditepe.eventservice.model.Event;
+import com.yeditepe.eventservice.model.SeatRelease;
+import com.yeditepe.eventservice.model.SeatReservation;
 import com.yeditepe.eventservice.repository.EventRepository;
+import com.yeditepe.eventservice.repository.EventSeats;
+import com.yeditepe.eventservice.repository.EventSpecifications;
+import com.yeditepe.eventservice.repository.SeatReleaseRepository;
+import com.yeditepe.eventservice.repository.SeatReservationRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EventService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final EventRepository eventRepository;
+    private final SeatInventoryEngine seatInventoryEngine;
+    private final EventCatalogCache eventCatalogCache;
+    private final EventSearchIndex eventSearchIndex;
+    private final EntityManager entityManager;
+    private final SeatReleaseRepository seatReleaseRepository;
+    private final SeatReservationRepository seatReservationRepository;
+    private final Duration releaseKeyRetention;
 
-    public EventService(EventRepository eventRepository) {
+    public EventService(EventRepository eventRepository, SeatInventoryEngine seatInventoryEngine,
+                        EventCatalogCache eventCatalogCache, EventSearchIndex eventSearchIndex,
+                        EntityManager entityManager, SeatReleaseRepository seatReleaseRepository,
+                        SeatReservationRepository seatReservationRepository,
+                        @Value("${event.release.key-retention-hours:168}") long releaseKeyRetentionHours) {
         this.eventRepository = eventRepository;
+        this.seatInventoryEngine = seatInventoryEngine;
+        this.eventCatalogCache = eventCatalogCache;
+        this.eventSearchIndex = eventSearchIndex;
+        this.entityManager = entityManager;
+        this.seatReleaseRepository = seatReleaseRepository;
+        this.seatReservationRepository = seatReservationRepository;
+        this.releaseKeyRetention = Duration.ofHours(releaseKeyRetentionHours);
     }
 
-    public List<EventResponse> getAllEvents() {
-        return eventRepository.findAll().stream()
+    // Filters are pushed down to the database; blank values mean "no filter".
+    public List<EventResponse> getEvents(String category, String venue, LocalDateTime from, LocalDateTime to) {
+        Sort byDate = Sort.by("date", "id");
+        List<Event> events;
+        if (!StringUtils.hasText(category) && !StringUtils.hasText(venue) && from != null && to != null) {
+            events = eventRepository.findByDateBetween(from, to, byDate);
+        } else {
+            events = eventRepository.findAll(filters(category, venue, from, to), byDate);
+        }
+        return events.stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    // Keyset pagination over (date, id): each page starts right after the cursor row, no OFFSET scan.
+    public CursorPage<EventResponse> getEventsPage(String category, String venue, LocalDateTime from,
+                                                   LocalDateTime to, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Specification<Event> spec = filters(category, venue, from, to);
+        if (StringUtils.hasText(cursor)) {
+            String[] key = decodeCursor(cursor);
+            spec = spec.and(EventSpecifications.after(LocalDateTime.parse(key[0]), key[1]));
+        }
+
+        List<Event> rows = eventRepository.findBy(spec,
+                q -> q.sortBy(Sort.by("date", "id")).limit(pageSize + 1).all());
+        boolean hasMore = rows.size() > pageSize;
+        List<Event> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(page.get(pageSize - 1)) : null;
+
+        return new CursorPage<>(page.stream().map(this::toResponse).collect(Collectors.toList()), nextCursor);
+    }
+
+    // Rows are detached as soon as they are handed to the sink, so memory stays flat for any result size.
+    @Transactional(readOnly = true)
+    public void streamEvents(String category, String venue, LocalDateTime from, LocalDateTime to,
+                             Consumer<EventResponse> sink) {
+        try (Stream<Event> events = eventRepository.streamByDate(filters(category, venue, from, to), STREAM_FETCH_SIZE)) {
+            events.forEach(e -> {
+                sink.accept(toResponse(e));
+                entityManager.detach(e);
+            });
+        }
+    }
+
+    // Ids come from the in-memory index; rows are loaded in one query and returned in index order.
+    public List<EventResponse> searchEvents(String query, int limit) {
+        List<String> ids = eventSearchIndex.search(query, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Event> byId = new HashMap<>();
+        eventRepository.findAllById(ids).forEach(e -> byId.put(e.getId(), e));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Metadata comes from the catalogue cache; the seat count is always read fresh.
     public EventResponse getEventById(String id) {
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
-        return toResponse(event);
+        EventResponse metadata = eventCatalogCache.get(id, this::loadMetadata);
+        return new EventResponse(metadata.getId(), metadata.getTitle(), metadata.getDate(),
+                getAvailableSeats(id), metadata.getPrice(), metadata.getCategory(), metadata.getVenue());
     }
 
     public EventResponse createEvent(EventRequest request) {
@@ -38,8 +146,13 @@ public class EventService {
         event.setDate(request.getDate());
         event.setAvailableSeats(request.getAvailableSeats());
         event.setPrice(request.getPrice());
+        event.setCategory(request.getCategory());
+        event.setVenue(request.getVenue());
 
         Event saved = eventRepository.save(event);
+        seatInventoryEngine.track(saved);
+        eventCatalogCache.invalidate(saved.getId());
+        eventSearchIndex.index(saved);
         return toResponse(saved);
     }
 
@@ -51,8 +164,12 @@ public class EventService {
         event.setDate(request.getDate());
         event.setAvailableSeats(request.getAvailableSeats());
         event.setPrice(request.getPrice());
+        event.setCategory(request.getCategory());
+        event.setVenue(request.getVenue());
 
-        Event saved = eventRepository.save(event);
+        Event saved = seatInventoryEngine.overwrite(id, request.getAvailableSeats(), () -> eventRepository.save(event));
+        eventCatalogCache.invalidate(id);
+        eventSearchIndex.index(saved);
         return toResponse(saved);
     }
 
@@ -61,53 +178,268 @@ public class EventService {
             throw new RuntimeException("Event not found with id: " + id);
         }
         eventRepository.deleteById(id);
+        seatInventoryEngine.forget(id);
+        eventCatalogCache.invalidate(id);
+        eventSearchIndex.remove(id);
     }
 
     public boolean checkStock(String eventId) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-        return event.getAvailableSeats() != null && event.getAvailableSeats() > 0;
+        return getAvailableSeats(eventId) > 0;
     }
 
+    // Seat count and in-stock flag from a single read.
+    public StockResponse getStock(String eventId) {
+        return toStock(eventId, getAvailableSeats(eventId));
+    }
+
+    // One IN query for all ids; unknown ids are left out of the result.
+    public List<StockResponse> getStock(Collection<String> eventIds) {
+        return eventRepository.findSeatsByIdIn(new LinkedHashSet<>(eventIds)).stream()
+                .map(s -> toStock(s.getId(), seatInventoryEngine.currentSeats(s.getId(), s.getAvailableSeats())))
+                .collect(Collectors.toList());
+    }
+
+    // Seat counts bypass the catalogue cache: engine counter or a two-column projection.
     public Integer getAvailableSeats(String eventId) {
-        Event event = eventRepository.findById(eventId)
+        if (seatInventoryEngine.isEnabled()) {
+            return seatInventoryEngine.availableSeats(eventId);
+        }
+        EventSeats seats = eventRepository.findSeatsById(eventId)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-        return event.getAvailableSeats() != null ? event.getAvailableSeats() : 0;
+        return seats.getAvailableSeats() != null ? seats.getAvailableSeats() : 0;
     }
 
     public boolean reserveSeat(String eventId) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-        
-        if (event.getAvailableSeats() == null || event.getAvailableSeats() <= 0) {
-            return false;
+        return reserveSeats(eventId, 1);
+    }
+
+    public boolean releaseSeat(String eventId) {
+        return releaseSeats(eventId, 1);
+    }
+
+    public boolean reserveSeats(String eventId, int count) {
+        if (seatInventoryEngine.isEnabled()) {
+            return seatInventoryEngine.reserve(eventId, count);
+        }
+        if (eventRepository.reserveSeats(eventId, count) == 1) {
+            return true;
+        }
+        if (!eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Event not found with id: " + eventId);
+        }
+        return false;
+    }
+
+    // Reserves as many of the requested seats as are left (possibly 0) and returns that number.
+    public int reserveSeatsUpTo(String eventId, int count) {
+        if (seatInventoryEngine.isEnabled()) {
+            return seatInventoryEngine.reserveUpTo(eventId, count);
+        }
+        // Conditional decrement of what was seen; a failed update means seats went down, so look again.
+        while (true) {
+            EventSeats seats = eventRepository.findSeatsById(eventId)
+                    .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
+            int available = seats.getAvailableSeats() != null ? seats.getAvailableSeats() : 0;
+            int take = Math.min(available, count);
+            if (take <= 0) {
+                return 0;
+            }
+            if (eventRepository.reserveSeats(eventId, take) == 1) {
+                return take;
+            }
+        }
+    }
+
+    public boolean releaseSeats(String eventId, int count) {
+        if (seatInventoryEngine.isEnabled()) {
+            seatInventoryEngine.release(eventId, count);
+            return true;
+        }
+        if (eventRepository.releaseSeats(eventId, count) == 0) {
+            throw new RuntimeException("Event not found with id: " + eventId);
         }
-        
-        event.setAvailableSeats(event.getAvailableSeats() - 1);
-        eventRepository.save(event);
         return true;
     }
 
-    public boolean releaseSeat(String eventId) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-        
-        if (event.getAvailableSeats() == null) {
-            event.setAvailableSeats(0);
+    // All-or-nothing: either every (eventId, count) pair is reserved or none is.
+    @Transactional
+    public boolean reserveSeats(List<SeatRequest> requests) {
+        Map<String, Integer> seats = mergeByEvent(requests);
+        if (seatInventoryEngine.isEnabled()) {
+            // Resolve every event first so an unknown id fails before any seat is taken.
+            seats.keySet().forEach(seatInventoryEngine::availableSeats);
+            Map<String, Integer> reserved = new LinkedHashMap<>();
+            try {
+                for (Map.Entry<String, Integer> entry : seats.entrySet()) {
+                    if (!seatInventoryEngine.reserve(entry.getKey(), entry.getValue())) {
+                        reserved.forEach(seatInventoryEngine::release);
+                        return false;
+                    }
+                    reserved.put(entry.getKey(), entry.getValue());
+                }
+            } catch (RuntimeException ex) {
+                reserved.forEach(seatInventoryEngine::release);
+                throw ex;
+            }
+            return true;
+        }
+        // Rows are updated in id order so overlapping batches can't deadlock each other.
+        for (Map.Entry<String, Integer> entry : seats.entrySet()) {
+            if (!reserveSeats(entry.getKey(), entry.getValue())) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // All-or-nothing. An entry whose release key was already applied is skipped; new keys are written
+    // (and flushed) before any seat goes back, so a concurrent duplicate fails on the key instead.
+    @Transactional
+    public boolean releaseSeats(List<SeatRequest> requests) {
+        Map<String, Integer> seats = mergeByEvent(unappliedReleases(requests));
+        if (seatInventoryEngine.isEnabled()) {
+            // Resolve every event first so an unknown id doesn't leave a partial release behind.
+            seats.keySet().forEach(seatInventoryEngine::availableSeats);
         }
-        
-        event.setAvailableSeats(event.getAvailableSeats() + 1);
-        eventRepository.save(event);
+        seats.forEach(this::releaseSeats);
         return true;
     }
 
+    /**
+     * Reserves one seat per key, in order, while seats last, and answers per key. A key seen
+     * before answers as it did the first time (no seat if it was cancelled first), so a caller
+     * that lost the reply can send the same keys again without taking more seats.
+     */
+    @Transactional
+    public List<Boolean> reserveSeats(String eventId, List<String> reservationKeys) {
+        Map<String, Integer> seats = seatReservationRepository.findAllById(new LinkedHashSet<>(reservationKeys)).stream()
+                .collect(Collectors.toMap(SeatReservation::getId, SeatReservation::getSeatCount));
+        List<String> fresh = reservationKeys.stream().distinct().filter(key -> !seats.containsKey(key)).toList();
+        if (!fresh.isEmpty()) {
+            int granted = reserveSeatsUpTo(eventId, fresh.size());
+            LocalDateTime now = LocalDateTime.now();
+            List<SeatReservation> reservations = new ArrayList<>(fresh.size());
+            for (int i = 0; i < fresh.size(); i++) {
+                reservations.add(new SeatReservation(fresh.get(i), eventId, i < granted ? 1 : 0, now));
+                seats.put(fresh.get(i), i < granted ? 1 : 0);
+            }
+            try {
+                // Flushed here: a concurrent request with one of the keys fails on it and rolls back its seats.
+                seatReservationRepository.saveAllAndFlush(reservations);
+            } catch (RuntimeException ex) {
+                if (seatInventoryEngine.isEnabled() && granted > 0) {
+                    seatInventoryEngine.release(eventId, granted);
+                }
+                throw ex;
+            }
+        }
+        return reservationKeys.stream().map(key -> seats.get(key) > 0).collect(Collectors.toList());
+    }
+
+    /**
+     * Undoes a keyed reservation and returns how many seats it held. The seats go back under the
+     * same key as a release, so a cancel and a release for one key give the seats back once. A key
+     * not seen yet is recorded as having got nothing, so a reserve with it that arrives late fails.
+     */
+    @Transactional
+    public int cancelReservation(String eventId, String reservationKey) {
+        SeatReservation reservation = seatReservationRepository.findById(reservationKey).orElse(null);
+        if (reservation == null) {
+            seatReservationRepository.saveAndFlush(new SeatReservation(reservationKey, eventId, 0, LocalDateTime.now()));
+            return 0;
+        }
+        if (reservation.getSeatCount() > 0) {
+            releaseSeats(List.of(new SeatRequest(reservation.getEventId(), reservation.getSeatCount(), reservationKey)));
+        }
+        return reservation.getSeatCount();
+    }
+
+    // Reservation and release keys only have to outlive the callers' retries.
+    @Scheduled(fixedDelayString = "${event.release.key-purge-interval-ms:3600000}")
+    public void purgeSeatKeys() {
+        LocalDateTime before = LocalDateTime.now().minus(releaseKeyRetention);
+        seatReservationRepository.deleteReservedBefore(before);
+        seatReleaseRepository.deleteReleasedBefore(before);
+    }
+
+    private List<SeatRequest> unappliedReleases(List<SeatRequest> requests) {
+        List<SeatRequest> unapplied = new ArrayList<>(requests.size());
+        Map<String, SeatRequest> keyed = new LinkedHashMap<>();
+        for (SeatRequest request : requests) {
+            if (request.getReleaseKey() == null) {
+                unapplied.add(request);
+            } else {
+                keyed.putIfAbsent(request.getReleaseKey(), request);
+            }
+        }
+        if (keyed.isEmpty()) {
+            return requests;
+        }
+        keyed.keySet().removeAll(seatReleaseRepository.findAppliedKeys(keyed.keySet()));
+        LocalDateTime now = LocalDateTime.now();
+        seatReleaseRepository.saveAllAndFlush(keyed.values().stream()
+                .map(r -> new SeatRelease(r.getReleaseKey(), r.getEventId(), r.getCount(), now))
+                .collect(Collectors.toList()));
+        unapplied.addAll(keyed.values());
+        return unapplied;
+    }
+
+    private Specification<Event> filters(String category, String venue, LocalDateTime from, LocalDateTime to) {
+        return EventSpecifications.matching(
+                StringUtils.hasText(category) ? category : null,
+                StringUtils.hasText(venue) ? venue : null,
+                from, to);
+    }
+
+    private String encodeCursor(Event last) {
+        String key = last.getDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private Map<String, Integer> mergeByEvent(List<SeatRequest> requests) {
+        Map<String, Integer> seats = new TreeMap<>();
+        for (SeatRequest request : requests) {
+            seats.merge(request.getEventId(), request.getCount(), Integer::sum);
+        }
+        return seats;
+    }
+
+    private StockResponse toStock(String eventId, Integer seats) {
+        int available = seats != null ? seats : 0;
+        return new StockResponse(eventId, available, available > 0);
+    }
+
+    private EventResponse loadMetadata(String id) {
+        Event e = eventRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
+        return new EventResponse(e.getId(), e.getTitle(), e.getDate(), null, e.getPrice(),
+                e.getCategory(), e.getVenue());
+    }
+
     private EventResponse toResponse(Event e) {
         return new EventResponse(
                 e.getId(),
                 e.getTitle(),
                 e.getDate(),
-                e.getAvailableSeats(),
-                e.getPrice()
+                seatInventoryEngine.currentSeats(e.getId(), e.getAvailableSeats()),
+                e.getPrice(),
+                e.getCategory(),
+                e.getVenue()
         );
     }
 }
@@ -0,0 +1,298 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.dto.HoldResponse;
+import com.yeditepe.eventservice.dto.SeatRequest;
+import com.yeditepe.eventservice.model.SeatHold;
+import com.yeditepe.eventservice.repository.SeatHoldRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-limited seat holds. A hold takes seats out of inventory right away and gives them
+ * back unless it is confirmed before its TTL runs out.
+ *
+ * Live holds are kept in a map keyed by hold id, and their deadlines in a {@link DelayQueue};
+ * a single expiry thread blocks on the queue and only ever sees holds that are actually due,
+ * so expiry cost is O(log n) per hold rather than a periodic scan. The seat_holds table is
+ * the durable copy used to rebuild both structures after a restart, and the copy shared with
+ * other instances: a hold created elsewhere is confirmed or cancelled from its row, and a slow
+ * sweep over expires_at gives back holds whose own instance died before expiring them.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldService.class);
+
+    private final EventService eventService;
+    private final SeatInventoryEngine seatInventoryEngine;
+    private final SeatHoldRepository seatHoldRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final int expiryBatchSize;
+    private final Duration releaseRetryDelay;
+
+    private final Map<String, SeatHold> holds = new ConcurrentHashMap<>();
+    private final DelayQueue<Expiry> expiries = new DelayQueue<>();
+    private Thread expiryThread;
+
+    public SeatHoldService(EventService eventService,
+                           SeatInventoryEngine seatInventoryEngine,
+                           SeatHoldRepository seatHoldRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${event.hold.ttl-seconds:600}") long ttlSeconds,
+                           @Value("${event.hold.max-ttl-seconds:3600}") long maxTtlSeconds,
+                           @Value("${event.hold.expiry-batch-size:500}") int expiryBatchSize,
+                           @Value("${event.hold.sweep-interval-ms:30000}") long sweepIntervalMs) {
+        this.eventService = eventService;
+        this.seatInventoryEngine = seatInventoryEngine;
+        this.seatHoldRepository = seatHoldRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultTtl = Duration.ofSeconds(ttlSeconds);
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.expiryBatchSize = expiryBatchSize;
+        this.releaseRetryDelay = Duration.ofMillis(sweepIntervalMs);
+    }
+
+    // Reload live holds from the table, then start expiring them; already-due holds go first.
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<SeatHold> persisted = seatHoldRepository.findAll();
+        persisted.forEach(this::track);
+        log.info("Recovered {} seat holds", persisted.size());
+
+        expiryThread = new Thread(this::expireLoop, "seat-hold-expiry");
+        expiryThread.setDaemon(true);
+        expiryThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (expiryThread != null) {
+            expiryThread.interrupt();
+        }
+    }
+
+    // Empty if the event doesn't have enough seats left.
+    public Optional<HoldResponse> hold(String eventId, int count, Long ttlSeconds) {
+        Duration ttl = ttlSeconds != null && ttlSeconds > 0 ? Duration.ofSeconds(ttlSeconds) : defaultTtl;
+        if (ttl.compareTo(maxTtl) > 0) {
+            ttl = maxTtl;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), eventId, count, now.plus(ttl), now);
+
+        // The hold row is written first so the seat decrement is the last thing that can fail.
+        // In-memory seats are not part of the transaction, so a failed commit gives them back by hand.
+        boolean[] taken = new boolean[1];
+        Boolean reserved;
+        try {
+            reserved = transactionTemplate.execute(status -> {
+                seatHoldRepository.saveAndFlush(hold);
+                if (eventService.reserveSeats(eventId, count)) {
+                    taken[0] = true;
+                    return true;
+                }
+                status.setRollbackOnly();
+                return false;
+            });
+        } catch (RuntimeException e) {
+            if (taken[0] && seatInventoryEngine.isEnabled()) {
+                seatInventoryEngine.release(eventId, count);
+            }
+            throw e;
+        }
+        if (!Boolean.TRUE.equals(reserved)) {
+            return Optional.empty();
+        }
+        track(hold);
+        return Optional.of(toResponse(hold));
+    }
+
+    // Makes the held seats permanent. Fails once the hold has expired or was already confirmed.
+    public HoldResponse confirm(String holdId) {
+        SeatHold hold = find(holdId);
+        // Another instance may have expired the hold from its own copy of the table in the meantime.
+        Integer deleted = hold == null ? null
+                : transactionTemplate.execute(status -> seatHoldRepository.confirmHold(holdId, LocalDateTime.now()));
+        if (deleted == null || deleted == 0) {
+            throw new RuntimeException("Hold not found with id: " + holdId);
+        }
+        return toResponse(hold);
+    }
+
+    public void cancel(String holdId) {
+        SeatHold hold = find(holdId);
+        if (hold == null) {
+            throw new RuntimeException("Hold not found with id: " + holdId);
+        }
+        releaseAll(List.of(hold));
+    }
+
+    // Gives back holds that are past due with nobody expiring them, e.g. because the instance that
+    // created them is gone. Holds this instance tracks are normally expired before the sweep sees them.
+    @Scheduled(fixedDelayString = "${event.hold.sweep-interval-ms:30000}",
+               initialDelayString = "${event.hold.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        List<SeatHold> expired;
+        int swept = 0;
+        do {
+            expired = seatHoldRepository.findByExpiresAtBeforeOrderByExpiresAt(
+                    LocalDateTime.now(), PageRequest.of(0, expiryBatchSize));
+            expired.forEach(hold -> holds.remove(hold.getId()));
+            if (!expired.isEmpty()) {
+                releaseAll(expired);
+                swept += expired.size();
+            }
+        } while (expired.size() == expiryBatchSize);
+        if (swept > 0) {
+            log.info("Swept {} expired seat holds", swept);
+        }
+    }
+
+    // The local map first; a hold created on another instance is only in the table.
+    // A hold already past due, in either place, is left for expiry.
+    private SeatHold find(String holdId) {
+        LocalDateTime now = LocalDateTime.now();
+        SeatHold hold = holds.get(holdId);
+        if (hold != null) {
+            return hold.getExpiresAt().isAfter(now) && holds.remove(holdId, hold) ? hold : null;
+        }
+        return seatHoldRepository.findById(holdId)
+                .filter(row -> row.getExpiresAt().isAfter(now))
+                .orElse(null);
+    }
+
+    private void track(SeatHold hold) {
+        holds.put(hold.getId(), hold);
+        expiries.put(new Expiry(hold.getId(), hold.getExpiresAt()));
+    }
+
+    private void expireLoop() {
+        List<Expiry> due = new ArrayList<>(expiryBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                due.add(expiries.take());
+                expiries.drainTo(due, expiryBatchSize - 1);
+
+                List<SeatHold> expired = new ArrayList<>(due.size());
+                for (Expiry expiry : due) {
+                    // Confirmed or cancelled holds are already gone from the map; skip their stale entries.
+                    SeatHold hold = holds.remove(expiry.holdId);
+                    if (hold != null) {
+                        expired.add(hold);
+                    }
+                }
+                if (!expired.isEmpty()) {
+                    releaseAll(expired);
+                    log.debug("Expired {} seat holds", expired.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.error("Seat hold expiry batch failed: {}", ex.getMessage(), ex);
+            } finally {
+                due.clear();
+            }
+        }
+    }
+
+    // Seats go back per event in one bulk release, in the same transaction that drops the hold rows.
+    // Only holds whose row this call deleted are released, so an instance racing us on the same
+    // hold (expiry here, cancel or expiry there) can never give its seats back twice.
+    private void releaseAll(List<SeatHold> released) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, Integer> seats = new HashMap<>();
+                for (SeatHold hold : released) {
+                    if (seatHoldRepository.deleteHold(hold.getId()) == 1) {
+                        seats.merge(hold.getEventId(), hold.getSeatCount(), Integer::sum);
+                    }
+                }
+                List<SeatRequest> requests = new ArrayList<>(seats.size());
+                seats.forEach((eventId, count) -> requests.add(new SeatRequest(eventId, count)));
+                eventService.releaseSeats(requests);
+            });
+        } catch (RuntimeException ex) {
+            // Typically an event deleted while it still had holds; release the rest one hold at a time.
+            log.warn("Bulk hold release failed, retrying per hold: {}", ex.getMessage());
+            for (SeatHold hold : released) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (seatHoldRepository.deleteHold(hold.getId()) == 1) {
+                            eventService.releaseSeats(hold.getEventId(), hold.getSeatCount());
+                        }
+                    });
+                } catch (RuntimeException single) {
+                    log.error("Could not release hold {} for event {}: {}",
+                            hold.getId(), hold.getEventId(), single.getMessage());
+                    keepForRetry(hold);
+                }
+            }
+        }
+    }
+
+    // The row is what lets the seats be given back later, so it stays unless its event is gone (and
+    // its seats with it); pushed past the next sweep, it is picked up and released again from there.
+    private void keepForRetry(SeatHold hold) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (eventService.getStock(List.of(hold.getEventId())).isEmpty()) {
+                    seatHoldRepository.deleteHold(hold.getId());
+                } else {
+                    seatHoldRepository.postponeHold(hold.getId(), LocalDateTime.now().plus(releaseRetryDelay));
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.error("Could not keep hold {} for retry: {}", hold.getId(), ex.getMessage());
+        }
+    }
+
+    private HoldResponse toResponse(SeatHold hold) {
+        return new HoldResponse(hold.getId(), hold.getEventId(), hold.getSeatCount(), hold.getExpiresAt());
+    }
+
+    private static final class Expiry implements Delayed {
+
+        private final String holdId;
+        private final long deadlineMillis;
+
+        Expiry(String holdId, LocalDateTime expiresAt) {
+            this.holdId = holdId;
+            this.deadlineMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((Expiry) other).deadlineMillis);
+        }
+    }
+}
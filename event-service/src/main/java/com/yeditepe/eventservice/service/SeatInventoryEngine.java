@@ -0,0 +1,224 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.model.Event;
+import com.yeditepe.eventservice.repository.EventRepository;
+import com.yeditepe.eventservice.repository.EventSeats;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory seat inventory for hot events. When enabled, reservations and releases only
+ * touch a {@link StripedSeatCounter} per event; changed counters are written back to the
+ * events table in batches by a background flush. When disabled, EventService keeps using
+ * the conditional UPDATE path against the database.
+ *
+ * A flush writes what each counter consumed since its last flush, as
+ * {@code available_seats = available_seats - consumed}, never the counter's own value, so
+ * several instances flushing the same event add up instead of overwriting one another.
+ *
+ * An admin overwriting the seat count and a flush writing a counter back must not
+ * interleave, or the flush can put a count read from the old counter over the new one.
+ * Flushes write under the read side of a lock and {@link #overwrite} under the write side;
+ * dirty marks remember which counter they were made on, so a flush never writes a counter
+ * that has since been replaced.
+ */
+@Component
+public class SeatInventoryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatInventoryEngine.class);
+
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int flushBatchSize;
+    private final int stripes;
+
+    private final Map<String, StripedSeatCounter> counters = new ConcurrentHashMap<>();
+    // Event id -> the counter that changed since the last flush.
+    private final Map<String, StripedSeatCounter> dirty = new ConcurrentHashMap<>();
+    private final ReadWriteLock overwriteLock = new ReentrantReadWriteLock();
+
+    public SeatInventoryEngine(EventRepository eventRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${event.inventory.engine.enabled:false}") boolean enabled,
+                               @Value("${event.inventory.engine.flush-batch-size:200}") int flushBatchSize,
+                               @Value("${event.inventory.engine.stripes:0}") int stripes) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.flushBatchSize = flushBatchSize;
+        int requested = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.stripes = Integer.highestOneBit(Math.max(requested - 1, 1)) << 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Rebuild all counters from the database so the engine starts from the persisted state.
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        List<EventSeats> seats = eventRepository.findAllSeats();
+        for (EventSeats s : seats) {
+            counters.putIfAbsent(s.getId(), newCounter(s.getAvailableSeats()));
+        }
+        log.info("Seat inventory engine recovered {} events with {} stripes each", seats.size(), stripes);
+    }
+
+    public boolean reserve(String eventId, int count) {
+        StripedSeatCounter counter = counter(eventId);
+        if (!counter.tryAcquire(count)) {
+            return false;
+        }
+        dirty.put(eventId, counter);
+        return true;
+    }
+
+    public int reserveUpTo(String eventId, int count) {
+        StripedSeatCounter counter = counter(eventId);
+        int taken = counter.acquireUpTo(count);
+        if (taken > 0) {
+            dirty.put(eventId, counter);
+        }
+        return taken;
+    }
+
+    public void release(String eventId, int count) {
+        StripedSeatCounter counter = counter(eventId);
+        counter.release(count);
+        dirty.put(eventId, counter);
+    }
+
+    public int availableSeats(String eventId) {
+        return counter(eventId).sum();
+    }
+
+    // Seats from the engine if the event is loaded, otherwise the given (persisted) value.
+    public Integer currentSeats(String eventId, Integer persisted) {
+        StripedSeatCounter counter = enabled ? counters.get(eventId) : null;
+        return counter != null ? Integer.valueOf(counter.sum()) : persisted;
+    }
+
+    // Called after a new event row is created.
+    public void track(Event event) {
+        if (enabled) {
+            counters.put(event.getId(), newCounter(event.getAvailableSeats()));
+            dirty.remove(event.getId());
+        }
+    }
+
+    // Writes an existing event's row with a new seat count and swaps in a fresh counter for it,
+    // with no flush running in between.
+    public <T> T overwrite(String eventId, Integer seats, Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        overwriteLock.writeLock().lock();
+        try {
+            T written = write.get();
+            counters.put(eventId, newCounter(seats));
+            dirty.remove(eventId);
+            return written;
+        } finally {
+            overwriteLock.writeLock().unlock();
+        }
+    }
+
+    public void forget(String eventId) {
+        if (enabled) {
+            counters.remove(eventId);
+            dirty.remove(eventId);
+        }
+    }
+
+    // Synchronized: two flushes reading the same counter would both subtract what it consumed.
+    @Scheduled(fixedDelayString = "${event.inventory.engine.flush-interval-ms:100}")
+    public synchronized void flush() {
+        if (!enabled || dirty.isEmpty()) {
+            return;
+        }
+        Map<String, StripedSeatCounter> batch = new HashMap<>();
+        for (Map.Entry<String, StripedSeatCounter> entry : dirty.entrySet()) {
+            // Removed before the counter is read: a concurrent change re-marks the event dirty.
+            if (!dirty.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == flushBatchSize) {
+                writeBatch(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void writeBatch(Map<String, StripedSeatCounter> batch) {
+        overwriteLock.readLock().lock();
+        try {
+            Map<StripedSeatCounter, Integer> read = new HashMap<>();
+            Map<String, Integer> consumed = new HashMap<>();
+            for (Map.Entry<String, StripedSeatCounter> entry : batch.entrySet()) {
+                StripedSeatCounter counter = entry.getValue();
+                // A counter replaced or dropped since it was marked belongs to an overwritten row.
+                if (counters.get(entry.getKey()) == counter) {
+                    // Changes landing after this read show up in the next flush's difference.
+                    int seats = counter.sum();
+                    read.put(counter, seats);
+                    if (counter.flushed() != seats) {
+                        consumed.put(entry.getKey(), counter.flushed() - seats);
+                    }
+                }
+            }
+            if (!consumed.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> eventRepository.subtractAvailableSeats(consumed));
+            }
+            read.forEach(StripedSeatCounter::markFlushed);
+        } catch (RuntimeException ex) {
+            log.warn("Seat inventory flush failed for {} events, will retry: {}", batch.size(), ex.getMessage());
+            batch.forEach(dirty::putIfAbsent);
+        } finally {
+            overwriteLock.readLock().unlock();
+        }
+    }
+
+    private StripedSeatCounter counter(String eventId) {
+        StripedSeatCounter counter = counters.computeIfAbsent(eventId, id ->
+                eventRepository.findSeatsById(id)
+                        .map(s -> newCounter(s.getAvailableSeats()))
+                        .orElse(null));
+        if (counter == null) {
+            throw new RuntimeException("Event not found with id: " + eventId);
+        }
+        return counter;
+    }
+
+    private StripedSeatCounter newCounter(Integer seats) {
+        return new StripedSeatCounter(stripes, seats != null ? seats : 0);
+    }
+}
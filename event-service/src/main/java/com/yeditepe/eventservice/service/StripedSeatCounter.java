@@ -0,0 +1,110 @@
+package com.yeditepe.eventservice.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Seat counter split into independent sub-pools ("stripes"). Each thread starts on its
+ * own stripe and only walks the others when that one runs dry, so concurrent
+ * reservations mostly CAS different cache lines instead of fighting over one value.
+ * A reservation is all-or-nothing. One the home stripe can cover is a single CAS;
+ * one that needs several stripes is collected under the counter's lock and handed back
+ * if the full count can't be found, so partially collected seats never hide stock from
+ * another multi-stripe reservation and the counter never goes negative.
+ */
+final class StripedSeatCounter {
+
+    // 16 ints = 64 bytes, keeps each stripe on its own cache line
+    private static final int PAD = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int mask;
+    // What sum() read when the counter's changes were last written back; only the flush touches it.
+    private volatile int flushed;
+
+    StripedSeatCounter(int stripes, int seats) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+        }
+        this.cells = new AtomicIntegerArray(stripes * PAD);
+        this.mask = stripes - 1;
+        int total = Math.max(seats, 0);
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PAD, total / stripes + (i < total % stripes ? 1 : 0));
+        }
+        this.flushed = total;
+    }
+
+    boolean tryAcquire(int count) {
+        int home = probe();
+        int idx = (home & mask) * PAD;
+        int cur;
+        while ((cur = cells.get(idx)) >= count) {
+            if (cells.compareAndSet(idx, cur, cur - count)) {
+                return true;
+            }
+        }
+        return collectAll(home, count);
+    }
+
+    // Only one caller at a time holds a partial collection, so a sweep that comes up short while
+    // sum() still covers the count just missed seats moving between stripes and is tried again.
+    private synchronized boolean collectAll(int home, int count) {
+        while (true) {
+            int taken = collect(home, count);
+            if (taken == count) {
+                return true;
+            }
+            if (taken > 0) {
+                cells.addAndGet((home & mask) * PAD, taken);
+            }
+            if (sum() < count) {
+                return false;
+            }
+        }
+    }
+
+    // Partial variant: takes as many of the requested seats as are left and returns that number.
+    int acquireUpTo(int count) {
+        return collect(probe(), count);
+    }
+
+    private int collect(int home, int count) {
+        int taken = 0;
+        for (int i = 0; i <= mask && taken < count; i++) {
+            int idx = ((home + i) & mask) * PAD;
+            int cur;
+            while (taken < count && (cur = cells.get(idx)) > 0) {
+                int take = Math.min(cur, count - taken);
+                if (cells.compareAndSet(idx, cur, cur - take)) {
+                    taken += take;
+                }
+            }
+        }
+        return taken;
+    }
+
+    void release(int count) {
+        cells.addAndGet((probe() & mask) * PAD, count);
+    }
+
+    int sum() {
+        int sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    int flushed() {
+        return flushed;
+    }
+
+    void markFlushed(int seats) {
+        this.flushed = seats;
+    }
+
+    private static int probe() {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
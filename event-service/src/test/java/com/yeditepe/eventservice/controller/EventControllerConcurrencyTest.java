@@ -0,0 +1,164 @@
+package com.yeditepe.eventservice.controller;
+
+import com.yeditepe.eventservice.dto.SeatRequest;
+import com.yeditepe.eventservice.model.Event;
+import com.yeditepe.eventservice.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "eureka.client.enabled=false")
+class EventControllerConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void parallelReservationsNeverOversell() throws Exception {
+        String eventId = createEvent(500);
+
+        List<Boolean> results = fire(2000, i -> "/api/events/" + eventId + "/reserve");
+
+        long reserved = results.stream().filter(Boolean::booleanValue).count();
+        assertEquals(500, reserved);
+        assertEquals(0, seatsOf(eventId));
+    }
+
+    @Test
+    void parallelReleasesAreNotLost() throws Exception {
+        String eventId = createEvent(0);
+
+        List<Boolean> results = fire(2000, i -> "/api/events/" + eventId + "/release");
+
+        assertEquals(2000, results.stream().filter(Boolean::booleanValue).count());
+        assertEquals(2000, seatsOf(eventId));
+    }
+
+    @Test
+    void interleavedReserveAndReleaseStayConsistent() throws Exception {
+        String eventId = createEvent(500);
+
+        List<Boolean> results = fire(2000, i -> "/api/events/" + eventId + (i % 2 == 0 ? "/reserve" : "/release"));
+
+        long reserved = 0;
+        for (int i = 0; i < results.size(); i += 2) {
+            if (results.get(i)) {
+                reserved++;
+            }
+        }
+        assertEquals(500 - reserved + 1000, seatsOf(eventId));
+    }
+
+    @Test
+    void parallelPartialReservationsHandOutExactlyTheRemainingSeats() throws Exception {
+        String eventId = createEvent(500);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                futures.add(pool.submit(() -> restTemplate.exchange("/api/events/" + eventId + "/reserve-up-to?count=3",
+                        HttpMethod.PUT, HttpEntity.EMPTY, Integer.class).getBody()));
+            }
+            int granted = 0;
+            for (Future<Integer> f : futures) {
+                granted += f.get();
+            }
+            assertEquals(500, granted);
+            assertEquals(0, seatsOf(eventId));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void bulkReserveIsAllOrNothing() {
+        String first = createEvent(5);
+        String second = createEvent(1);
+
+        Boolean rejected = bulk("/api/events/reserve", List.of(new SeatRequest(first, 2), new SeatRequest(second, 2)));
+        assertFalse(rejected);
+        assertEquals(5, seatsOf(first));
+        assertEquals(1, seatsOf(second));
+
+        Boolean accepted = bulk("/api/events/reserve", List.of(new SeatRequest(first, 2), new SeatRequest(second, 1)));
+        assertTrue(accepted);
+        assertEquals(3, seatsOf(first));
+        assertEquals(0, seatsOf(second));
+    }
+
+    @Test
+    void seatCountBelowOneIsABadRequest() {
+        String eventId = createEvent(5);
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/api/events/" + eventId + "/reserve?count=0", HttpMethod.PUT, null, String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(5, seatsOf(eventId));
+    }
+
+    private Boolean bulk(String url, List<SeatRequest> requests) {
+        return restTemplate.exchange(url, HttpMethod.PUT, new HttpEntity<>(requests), Boolean.class).getBody();
+    }
+
+    private List<Boolean> fire(int calls, IntFunction<String> path) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(calls);
+            for (int i = 0; i < calls; i++) {
+                String url = path.apply(i);
+                Callable<Boolean> call = () -> {
+                    ResponseEntity<Boolean> resp =
+                            restTemplate.exchange(url, HttpMethod.PUT, HttpEntity.EMPTY, Boolean.class);
+                    assertEquals(200, resp.getStatusCode().value());
+                    return resp.getBody();
+                };
+                futures.add(pool.submit(call));
+            }
+            List<Boolean> results = new ArrayList<>(calls);
+            for (Future<Boolean> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String createEvent(int seats) {
+        Event event = new Event(UUID.randomUUID().toString(), "Concurrency test",
+                LocalDateTime.now().plusDays(1), seats, BigDecimal.TEN);
+        return eventRepository.save(event).getId();
+    }
+
+    private int seatsOf(String eventId) {
+        return eventRepository.findById(eventId).orElseThrow().getAvailableSeats();
+    }
+}
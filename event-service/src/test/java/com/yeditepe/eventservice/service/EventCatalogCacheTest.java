@@ -0,0 +1,56 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.dto.EventResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventCatalogCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EventCatalogCache cache = new EventCatalogCache(registry, 100, 300);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, EventResponse> loader = id -> {
+        loads.incrementAndGet();
+        return new EventResponse(id, "Title " + loads.get(), LocalDateTime.now(), null, BigDecimal.TEN, null, null);
+    };
+
+    @Test
+    void repeatedReadsHitTheCache() {
+        cache.get("e1", loader);
+        cache.get("e1", loader);
+        cache.get("e1", loader);
+
+        assertEquals(1, loads.get());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "eventCatalog").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "eventCatalog").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        assertEquals("Title 1", cache.get("e1", loader).getTitle());
+
+        cache.invalidate("e1");
+
+        assertEquals("Title 2", cache.get("e1", loader).getTitle());
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        assertThrows(RuntimeException.class, () -> cache.get("missing", id -> {
+            throw new RuntimeException("Event not found with id: " + id);
+        }));
+
+        assertEquals("Title 1", cache.get("missing", loader).getTitle());
+    }
+}
@@ -0,0 +1,109 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.dto.EventRequest;
+import com.yeditepe.eventservice.dto.ImportResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "eureka.client.enabled=false")
+class EventImportServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EventImportServiceTest.class);
+
+    @Autowired
+    private EventImportService eventImportService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Test
+    void csvImportReportsBadRowsAndKeepsTheRest() throws Exception {
+        String csv = String.join("\n",
+                "title,date,availableSeats,price,category,venue",
+                "\"Csv Gala, Night\",2030-05-01T20:00:00,100,50.00,Concert,Arena",
+                ",2030-05-02T20:00:00,100,50.00,Concert,Arena",
+                "Csv Matinee,not-a-date,100,50.00,Theatre,Hall",
+                "",
+                "Csv Opera,2030-05-03T20:00:00,0,50.00,Opera,Hall",
+                "Csv Jazz,2030-05-04T20:00:00,20,15.50,,");
+
+        ImportResult result = eventImportService.importCsv(stream(csv));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getMessage().contains("title"));
+        assertEquals(4, result.getErrors().get(1).getLine());
+        assertEquals(6, result.getErrors().get(2).getLine());
+        assertEquals(1, eventService.searchEvents("csv gala", 10).size());
+    }
+
+    @Test
+    void ndjsonImportReportsUnreadableLines() throws Exception {
+        String ndjson = String.join("\n",
+                "{\"title\":\"Json Fest\",\"date\":\"2030-06-01T18:00:00\",\"availableSeats\":500,\"price\":30}",
+                "{not json",
+                "{\"title\":\"Json Fest 2\",\"date\":\"2030-06-02T18:00:00\",\"availableSeats\":500,\"price\":-1}");
+
+        ImportResult result = eventImportService.importNdjson(stream(ndjson));
+
+        assertEquals(3, result.getReceived());
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals(3, result.getErrors().get(1).getLine());
+    }
+
+    @Test
+    void csvWithoutRequiredColumnsIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> eventImportService.importCsv(stream("title,date\nX,2030-01-01T00:00:00")));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void importIsFasterThanOneByOne() throws Exception {
+        int rows = 5_000;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            EventRequest request = new EventRequest();
+            request.setTitle("Single " + i);
+            request.setDate(LocalDateTime.now().plusDays(1));
+            request.setAvailableSeats(100);
+            request.setPrice(BigDecimal.TEN);
+            eventService.createEvent(request);
+        }
+        double singleRate = rows / ((System.nanoTime() - start) / 1e9);
+
+        StringBuilder csv = new StringBuilder("title,date,availableSeats,price\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Bulk ").append(i).append(",2030-01-01T10:00:00,100,10\n");
+        }
+        start = System.nanoTime();
+        ImportResult result = eventImportService.importCsv(stream(csv.toString()));
+        double bulkRate = rows / ((System.nanoTime() - start) / 1e9);
+
+        log.info("one-by-one: {} rows/s, import: {} rows/s", Math.round(singleRate), Math.round(bulkRate));
+        assertEquals(rows, result.getImported());
+        // Batched inserts skip a transaction and a round trip per row; well short of that still catches a regression.
+        assertTrue(bulkRate > 2 * singleRate, "import " + Math.round(bulkRate) + " rows/s vs one-by-one " + Math.round(singleRate));
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.yeditepe.eventservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSearchIndexTest {
+
+    private final EventSearchIndex index = new EventSearchIndex(null);
+
+    @Test
+    void lastTermMatchesAsPrefix() {
+        index.index("1", "Rock Night", "Concert", "Istanbul Arena");
+        index.index("2", "Jazz Evening", "Concert", "İzmir Hall");
+        index.index("3", "Rockabilly Party", "Dance", "Ankara Club");
+
+        assertEquals(List.of("1", "3"), index.search("roc", 10));
+        assertEquals(List.of("1"), index.search("concert roc", 10));
+        assertEquals(List.of("2"), index.search("izm", 10));
+        assertTrue(index.search("night jaz", 10).isEmpty());
+    }
+
+    @Test
+    void updatesReplaceOldTokensAndDeletesDropTheEvent() {
+        index.index("1", "Rock Night", "Concert", "Arena");
+
+        index.index("1", "Opera Gala", "Concert", "Arena");
+        assertTrue(index.search("rock", 10).isEmpty());
+        assertEquals(List.of("1"), index.search("gala", 10));
+
+        index.remove("1");
+        assertTrue(index.search("gala", 10).isEmpty());
+        assertEquals(0, index.size());
+        assertEquals(0, index.tokenCount());
+    }
+
+    @Test
+    void tokensComingAndGoingConcurrentlyKeepEveryLiveEvent() throws Exception {
+        // Half the events keep "shared"; the other half add and drop it over and over, emptying its set.
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String id = "e" + t;
+                boolean churn = t % 2 == 1;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        index.index(id, churn && i % 2 == 0 ? "Other " + i : "Shared");
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(List.of("e0", "e1", "e2", "e3", "e4", "e5", "e6", "e7"),
+                index.search("shared", 10).stream().sorted().toList());
+        assertEquals(1, index.tokenCount());
+    }
+
+    @Test
+    void limitCapsResultsOnLargeIndex() {
+        for (int i = 0; i < 100_000; i++) {
+            index.index("e" + i, "Event " + i + (i % 10 == 0 ? " festival" : " show"), "Cat" + (i % 50), "Venue" + (i % 200));
+        }
+
+        assertEquals(20, index.search("fest", 20).size());
+        assertEquals(20, index.search("cat7 venue107 sh", 20).size());
+        assertEquals(List.of("e4242"), index.search("4242 ev", 20));
+        assertEquals(11, index.search("4242", 20).size());
+    }
+}
@@ -0,0 +1,139 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.dto.EventResponse;
+import com.yeditepe.eventservice.dto.SeatRequest;
+import com.yeditepe.eventservice.model.Event;
+import com.yeditepe.eventservice.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "eureka.client.enabled=false")
+class EventServiceTest {
+
+    // Far enough in the future that no other test's events fall into the date ranges below.
+    private static final LocalDateTime BASE = LocalDateTime.of(2099, 6, 1, 20, 0);
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    private final String rock = "rock-" + UUID.randomUUID();
+    private final String jazz = "jazz-" + UUID.randomUUID();
+    private final String arena = "arena-" + UUID.randomUUID();
+    private final String club = "club-" + UUID.randomUUID();
+
+    @BeforeEach
+    void createEvents() {
+        save("rock-arena-day3", rock, arena, BASE.plusDays(3));
+        save("rock-club-day1", rock, club, BASE.plusDays(1));
+        save("jazz-arena-day2", jazz, arena, BASE.plusDays(2));
+        save("rock-arena-day10", rock, arena, BASE.plusDays(10));
+    }
+
+    @Test
+    void categoryFilterIsAppliedAndOrderedByDate() {
+        assertEquals(List.of("rock-club-day1", "rock-arena-day3", "rock-arena-day10"),
+                titles(eventService.getEvents(rock, null, null, null)));
+    }
+
+    @Test
+    void venueFilterIsAppliedAndOrderedByDate() {
+        assertEquals(List.of("jazz-arena-day2", "rock-arena-day3", "rock-arena-day10"),
+                titles(eventService.getEvents(null, arena, null, null)));
+    }
+
+    @Test
+    void fromAndToBoundTheDateInclusively() {
+        assertEquals(List.of("rock-arena-day3", "rock-arena-day10"),
+                titles(eventService.getEvents(rock, null, BASE.plusDays(3), null)));
+        assertEquals(List.of("rock-club-day1", "rock-arena-day3"),
+                titles(eventService.getEvents(rock, null, null, BASE.plusDays(3))));
+        assertEquals(List.of("rock-arena-day3"),
+                titles(eventService.getEvents(rock, arena, BASE.plusDays(2), BASE.plusDays(5))));
+    }
+
+    @Test
+    void dateRangeWithoutOtherFiltersIsOrderedByDate() {
+        List<EventResponse> events = eventService.getEvents(null, null, BASE.plusDays(1), BASE.plusDays(3));
+
+        assertEquals(List.of("rock-club-day1", "jazz-arena-day2", "rock-arena-day3"),
+                titles(events.stream().filter(e -> e.getCategory().equals(rock) || e.getCategory().equals(jazz))
+                        .collect(Collectors.toList())));
+    }
+
+    @Test
+    void releaseWithAnAlreadyAppliedKeyIsSkipped() {
+        String eventId = save("keyed-release", rock, club, BASE.plusDays(20));
+        assertTrue(eventService.reserveSeats(eventId, 2));
+        String first = "booking-" + UUID.randomUUID();
+        String second = "booking-" + UUID.randomUUID();
+
+        eventService.releaseSeats(List.of(new SeatRequest(eventId, 1, first)));
+        // A retry of the first release (e.g. its response was lost) together with a new one.
+        eventService.releaseSeats(List.of(new SeatRequest(eventId, 1, first), new SeatRequest(eventId, 1, second)));
+        eventService.releaseSeats(List.of(new SeatRequest(eventId, 1, second)));
+
+        assertEquals(100, eventService.getAvailableSeats(eventId));
+    }
+
+    @Test
+    void keyedReserveSentAgainTakesNoMoreSeats() {
+        String eventId = save("keyed-reserve", rock, club, BASE.plusDays(21));
+        assertTrue(eventService.reserveSeats(eventId, 98));
+        String a = "booking-" + UUID.randomUUID();
+        String b = "booking-" + UUID.randomUUID();
+        String c = "booking-" + UUID.randomUUID();
+
+        assertEquals(List.of(true, true, false), eventService.reserveSeats(eventId, List.of(a, b, c)));
+        // The reply was lost and the batch is sent again: same answers, no seat taken twice.
+        assertEquals(List.of(true, true, false), eventService.reserveSeats(eventId, List.of(a, b, c)));
+        assertEquals(0, eventService.getAvailableSeats(eventId));
+    }
+
+    @Test
+    void cancelledReservationGivesItsSeatBackOnce() {
+        String eventId = save("keyed-cancel", rock, club, BASE.plusDays(22));
+        String key = "booking-" + UUID.randomUUID();
+        assertEquals(List.of(true), eventService.reserveSeats(eventId, List.of(key)));
+
+        assertEquals(1, eventService.cancelReservation(eventId, key));
+        eventService.cancelReservation(eventId, key);
+        // A release under the same key (e.g. from another compensation path) is not applied on top.
+        eventService.releaseSeats(List.of(new SeatRequest(eventId, 1, key)));
+
+        assertEquals(100, eventService.getAvailableSeats(eventId));
+    }
+
+    @Test
+    void reserveArrivingAfterItsCancelGetsNothing() {
+        String eventId = save("keyed-late", rock, club, BASE.plusDays(23));
+        String key = "booking-" + UUID.randomUUID();
+
+        assertEquals(0, eventService.cancelReservation(eventId, key));
+        assertEquals(List.of(false), eventService.reserveSeats(eventId, List.of(key)));
+        assertEquals(100, eventService.getAvailableSeats(eventId));
+    }
+
+    private String save(String title, String category, String venue, LocalDateTime date) {
+        String id = UUID.randomUUID().toString();
+        eventRepository.save(new Event(id, title, date, 100, BigDecimal.TEN, category, venue));
+        return id;
+    }
+
+    private List<String> titles(List<EventResponse> events) {
+        return events.stream().map(EventResponse::getTitle).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,166 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.dto.HoldResponse;
+import com.yeditepe.eventservice.model.Event;
+import com.yeditepe.eventservice.model.SeatHold;
+import com.yeditepe.eventservice.repository.EventRepository;
+import com.yeditepe.eventservice.repository.SeatHoldRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = "eureka.client.enabled=false")
+class SeatHoldServiceTest {
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private SeatHoldRepository seatHoldRepository;
+
+    @SpyBean
+    private EventService eventService;
+
+    @Test
+    void expiredHoldsGiveTheirSeatsBack() throws Exception {
+        String eventId = createEvent(10);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(seatHoldService.hold(eventId, 2, 1L).isPresent());
+        }
+        assertFalse(seatHoldService.hold(eventId, 1, 1L).isPresent());
+        assertEquals(0, seatsOf(eventId));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (seatsOf(eventId) < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(10, seatsOf(eventId));
+        assertEquals(0, seatHoldRepository.count());
+    }
+
+    @Test
+    void confirmedHoldKeepsItsSeats() throws Exception {
+        String eventId = createEvent(3);
+
+        HoldResponse hold = seatHoldService.hold(eventId, 2, 1L).orElseThrow();
+        seatHoldService.confirm(hold.getHoldId());
+        Thread.sleep(1_500);
+
+        assertEquals(1, seatsOf(eventId));
+        assertThrows(RuntimeException.class, () -> seatHoldService.confirm(hold.getHoldId()));
+    }
+
+    @Test
+    void holdReleasedElsewhereIsNotReleasedAgain() {
+        String eventId = createEvent(3);
+        HoldResponse hold = seatHoldService.hold(eventId, 2, 60L).orElseThrow();
+
+        // Another instance expired it from its own copy of the table and already gave the seats back.
+        seatHoldRepository.deleteById(hold.getHoldId());
+        seatHoldService.cancel(hold.getHoldId());
+
+        assertEquals(1, seatsOf(eventId));
+    }
+
+    @Test
+    void holdCreatedOnAnotherInstanceCanBeConfirmedOrCancelledHere() {
+        String eventId = createEvent(5);
+        String confirmed = holdElsewhere(eventId, 2, LocalDateTime.now().plusMinutes(5));
+        String cancelled = holdElsewhere(eventId, 2, LocalDateTime.now().plusMinutes(5));
+
+        assertEquals(confirmed, seatHoldService.confirm(confirmed).getHoldId());
+        seatHoldService.cancel(cancelled);
+
+        assertEquals(3, seatsOf(eventId));
+        assertFalse(seatHoldRepository.existsById(confirmed));
+        assertFalse(seatHoldRepository.existsById(cancelled));
+    }
+
+    @Test
+    void expiredHoldLeftBehindByADeadInstanceIsSwept() {
+        String eventId = createEvent(5);
+        String orphan = holdElsewhere(eventId, 3, LocalDateTime.now().minusSeconds(1));
+
+        assertThrows(RuntimeException.class, () -> seatHoldService.confirm(orphan));
+        seatHoldService.sweepExpired();
+
+        assertEquals(5, seatsOf(eventId));
+        assertFalse(seatHoldRepository.existsById(orphan));
+    }
+
+    @Test
+    void holdPastItsDeadlineCannotBeConfirmed() throws Exception {
+        String eventId = createEvent(3);
+        HoldResponse hold = seatHoldService.hold(eventId, 2, 1L).orElseThrow();
+
+        Thread.sleep(1_100);
+
+        assertThrows(RuntimeException.class, () -> seatHoldService.confirm(hold.getHoldId()));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (seatsOf(eventId) < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(3, seatsOf(eventId));
+    }
+
+    @Test
+    void holdWhoseSeatsCouldNotBeReleasedIsSweptAgainLater() {
+        String eventId = createEvent(5);
+        String hold = holdElsewhere(eventId, 3, LocalDateTime.now().minusSeconds(1));
+        doThrow(new RuntimeException("Connection is not available")).when(eventService).releaseSeats(anyList());
+        doThrow(new RuntimeException("Connection is not available")).when(eventService).releaseSeats(eq(eventId), anyInt());
+
+        seatHoldService.sweepExpired();
+
+        SeatHold kept = seatHoldRepository.findById(hold).orElseThrow();
+        assertTrue(kept.getExpiresAt().isAfter(LocalDateTime.now()));
+        assertEquals(2, seatsOf(eventId));
+
+        // The database is back and the pushed-out deadline has passed.
+        doCallRealMethod().when(eventService).releaseSeats(anyList());
+        doCallRealMethod().when(eventService).releaseSeats(eq(eventId), anyInt());
+        kept.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        seatHoldRepository.save(kept);
+        seatHoldService.sweepExpired();
+
+        assertEquals(5, seatsOf(eventId));
+        assertFalse(seatHoldRepository.existsById(hold));
+    }
+
+    // Written the way another instance's hold() would, without this instance tracking it.
+    private String holdElsewhere(String eventId, int count, LocalDateTime expiresAt) {
+        assertTrue(eventService.reserveSeats(eventId, count));
+        String id = UUID.randomUUID().toString();
+        seatHoldRepository.save(new SeatHold(id, eventId, count, expiresAt, LocalDateTime.now()));
+        return id;
+    }
+
+    private String createEvent(int seats) {
+        Event event = new Event(UUID.randomUUID().toString(), "Hold test",
+                LocalDateTime.now().plusDays(1), seats, BigDecimal.TEN);
+        return eventRepository.save(event).getId();
+    }
+
+    private int seatsOf(String eventId) {
+        return eventRepository.findById(eventId).orElseThrow().getAvailableSeats();
+    }
+}
@@ -0,0 +1,122 @@
+package com.yeditepe.eventservice.service;
+
+import com.yeditepe.eventservice.repository.EventRepository;
+import com.yeditepe.eventservice.repository.EventSeats;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SeatInventoryEngineTest {
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final Map<String, Integer> rows = new ConcurrentHashMap<>();
+    private final SeatInventoryEngine engine =
+            new SeatInventoryEngine(eventRepository, mock(PlatformTransactionManager.class), true, 200, 4);
+
+    @Test
+    void flushInFlightDuringAnOverwriteCannotPutTheOldCountBack() throws Exception {
+        rows.put("event-1", 10);
+        when(eventRepository.findSeatsById("event-1")).thenReturn(Optional.of(seats("event-1", 10)));
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            proceed.await(5, TimeUnit.SECONDS);
+            return subtract(invocation.getArgument(0));
+        }).when(eventRepository).subtractAvailableSeats(anyMap());
+
+        assertTrue(engine.reserve("event-1", 1));
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            // The flush has read one seat consumed from the old counter and is about to write it.
+            Future<?> flush = pool.submit(engine::flush);
+            assertTrue(flushing.await(5, TimeUnit.SECONDS));
+
+            Future<Integer> overwrite = pool.submit(() ->
+                    engine.overwrite("event-1", 50, () -> rows.put("event-1", 50)));
+            Thread.sleep(200);
+            assertFalse(overwrite.isDone());
+
+            proceed.countDown();
+            flush.get(5, TimeUnit.SECONDS);
+            overwrite.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(50, rows.get("event-1"));
+        assertEquals(50, engine.availableSeats("event-1"));
+    }
+
+    @Test
+    void changesOnTheNewCounterAreFlushedAfterAnOverwrite() {
+        when(eventRepository.findSeatsById("event-1")).thenReturn(Optional.of(seats("event-1", 10)));
+        doAnswer(invocation -> subtract(invocation.getArgument(0)))
+                .when(eventRepository).subtractAvailableSeats(anyMap());
+
+        assertTrue(engine.reserve("event-1", 1));
+        engine.overwrite("event-1", 50, () -> rows.put("event-1", 50));
+        engine.flush();
+        assertEquals(50, rows.get("event-1"));
+
+        assertTrue(engine.reserve("event-1", 2));
+        engine.flush();
+        assertEquals(48, rows.get("event-1"));
+    }
+
+    @Test
+    void instancesFlushingTheSameEventEachSubtractWhatTheyConsumed() {
+        rows.put("event-1", 10);
+        when(eventRepository.findSeatsById("event-1")).thenReturn(Optional.of(seats("event-1", 10)));
+        doAnswer(invocation -> subtract(invocation.getArgument(0)))
+                .when(eventRepository).subtractAvailableSeats(anyMap());
+        SeatInventoryEngine other =
+                new SeatInventoryEngine(eventRepository, mock(PlatformTransactionManager.class), true, 200, 4);
+
+        assertTrue(engine.reserve("event-1", 3));
+        assertTrue(other.reserve("event-1", 2));
+        engine.flush();
+        other.flush();
+        assertEquals(5, rows.get("event-1"));
+
+        engine.release("event-1", 1);
+        engine.flush();
+        other.flush();
+        assertEquals(6, rows.get("event-1"));
+    }
+
+    private Void subtract(Map<String, Integer> consumed) {
+        consumed.forEach((id, seats) -> rows.merge(id, -seats, Integer::sum));
+        return null;
+    }
+
+    private static EventSeats seats(String id, int available) {
+        return new EventSeats() {
+            @Override
+            public String getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getAvailableSeats() {
+                return available;
+            }
+        };
+    }
+}
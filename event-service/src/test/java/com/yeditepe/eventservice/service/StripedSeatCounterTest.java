@@ -0,0 +1,100 @@
+package com.yeditepe.eventservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedSeatCounterTest {
+
+    @Test
+    void multiSeatAcquireIsAllOrNothing() {
+        StripedSeatCounter counter = new StripedSeatCounter(4, 5);
+
+        assertTrue(counter.tryAcquire(3));
+        assertFalse(counter.tryAcquire(3));
+        assertEquals(2, counter.sum());
+    }
+
+    @Test
+    void acquireUpToTakesWhatIsLeft() {
+        StripedSeatCounter counter = new StripedSeatCounter(4, 5);
+
+        assertEquals(3, counter.acquireUpTo(3));
+        assertEquals(2, counter.acquireUpTo(3));
+        assertEquals(0, counter.acquireUpTo(3));
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void parallelAcquireNeverOversells() throws Exception {
+        StripedSeatCounter counter = new StripedSeatCounter(8, 10_000);
+        AtomicInteger acquired = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        if (counter.tryAcquire(1 + i % 3)) {
+                            acquired.addAndGet(1 + i % 3);
+                        }
+                        if (i % 10 == 0) {
+                            counter.release(1);
+                            acquired.decrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(10_000 - acquired.get(), counter.sum());
+        assertTrue(counter.sum() >= 0);
+    }
+
+    @Test
+    void contendedMultiSeatAcquireNeverFailsWhileStockRemains() throws Exception {
+        // Three seats per thread and every thread gives back what it took, so whoever asks finds at
+        // least three left; any failure is a false sold-out. Releases land on the releaser's stripe,
+        // which keeps the stock spread thin and has acquires collecting from several stripes at once.
+        int threads = 8;
+        StripedSeatCounter counter = new StripedSeatCounter(8, threads * 3);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 200_000; i++) {
+                        if (counter.tryAcquire(3)) {
+                            counter.release(3);
+                        } else {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(0, failures.get());
+        assertEquals(threads * 3, counter.sum());
+    }
+}
@@ -0,0 +1,33 @@
+package com.yeditepe.paymentservice.config;
+
+import com.yeditepe.paymentservice.gateway.HttpPaymentGateway;
+import com.yeditepe.paymentservice.gateway.PaymentGateway;
+import com.yeditepe.paymentservice.gateway.SimulatedPaymentGateway;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(PaymentGatewayProperties.class)
+@Slf4j
+public class PaymentGatewayConfig {
+
+    @Bean
+    public PaymentGateway paymentGateway(PaymentGatewayProperties properties, RestTemplateBuilder builder) {
+        if ("http".equalsIgnoreCase(properties.getType())) {
+            Duration timeout = Duration.ofMillis(properties.getTimeoutMs());
+            log.info("Using HTTP payment gateway at {}", properties.getUrl());
+            return new HttpPaymentGateway(builder.setConnectTimeout(timeout).setReadTimeout(timeout).build(),
+                properties.getUrl());
+        }
+        if (!"simulated".equalsIgnoreCase(properties.getType())) {
+            throw new IllegalStateException("Unknown payment.gateway.type: " + properties.getType());
+        }
+        log.info("Using simulated payment gateway: {}", properties.getSimulator());
+        return new SimulatedPaymentGateway(properties.getSimulator());
+    }
+}
@@ -0,0 +1,46 @@
+package com.yeditepe.paymentservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Payment gateway settings under {@code payment.gateway}: which gateway to use, how long a
+ * charge may take, and how the local simulator behaves.
+ */
+@Data
+@ConfigurationProperties(prefix = "payment.gateway")
+public class PaymentGatewayProperties {
+
+    // "simulated" runs the simulator in-process; "http" calls the gateway (or the local stub) at url.
+    private String type = "simulated";
+
+    private String url = "http://localhost:8084/stub/gateway";
+
+    // Per-charge deadline; a charge that misses it is left UNKNOWN for the reconciler.
+    private long timeoutMs = 5000;
+
+    // Concurrent charges allowed; beyond this requests are rejected with 503.
+    private int maxConcurrent = 64;
+
+    private Simulator simulator = new Simulator();
+
+    @Data
+    public static class Simulator {
+        // Share of answered charges that are approved.
+        private double approvalRate = 0.80;
+        // Share of charges that fail with a gateway error after the usual latency.
+        private double errorRate = 0.0;
+        // Share of charges that never answer (the caller's deadline has to catch them).
+        private double hangRate = 0.0;
+        private long hangMs = 60_000;
+        // Log-normal latency given by its median and 99th percentile; 0 means no delay.
+        private long medianLatencyMs = 0;
+        private long p99LatencyMs = 0;
+        // Charges per second the gateway accepts before answering "rate limited"; 0 means unlimited.
+        private double rateLimitPerSecond = 0;
+        // Fixed seed for repeatable runs; 0 picks a random one.
+        private long seed = 0;
+        // Serve the simulator over HTTP at /stub/gateway/charges for type=http setups.
+        private boolean stubServerEnabled = false;
+    }
+}
@@ -0,0 +1,71 @@
+package com.yeditepe.paymentservice.controller;
+
+import com.yeditepe.paymentservice.config.PaymentGatewayProperties;
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.exception.PaymentGatewayException;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import com.yeditepe.paymentservice.gateway.SimulatedPaymentGateway;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Local stub of a payment provider for load tests: serves the simulator over HTTP so that a
+ * payment-service with {@code payment.gateway.type=http} pays real network and pool costs.
+ * Answers 404 unless payment.gateway.simulator.stub-server-enabled is set.
+ */
+@RestController
+@RequestMapping("/stub/gateway")
+public class GatewayStubController {
+
+    private final boolean enabled;
+    private final SimulatedPaymentGateway simulator;
+
+    public GatewayStubController(PaymentGatewayProperties properties) {
+        this.enabled = properties.getSimulator().isStubServerEnabled();
+        this.simulator = new SimulatedPaymentGateway(properties.getSimulator());
+    }
+
+    // POST /stub/gateway/charges  {transactionId, bookingId, amount, paymentMethod}
+    @PostMapping("/charges")
+    public ResponseEntity<Map<String, Object>> charge(@RequestBody Map<String, Object> charge) {
+        return answer(List.of(charge), approved -> approved.get(0));
+    }
+
+    // POST /stub/gateway/charges/batch  [{transactionId, ...}, ...]
+    @PostMapping("/charges/batch")
+    public ResponseEntity<Map<String, Object>> chargeBatch(@RequestBody List<Map<String, Object>> charges) {
+        return answer(charges, approved -> approved);
+    }
+
+    private ResponseEntity<Map<String, Object>> answer(List<Map<String, Object>> charges,
+                                                       Function<List<Boolean>, Object> body) {
+        if (!enabled) {
+            return ResponseEntity.notFound().build();
+        }
+        List<Payment> payments = new ArrayList<>(charges.size());
+        for (Map<String, Object> charge : charges) {
+            payments.add(Payment.builder()
+                .transactionId(String.valueOf(charge.get("transactionId")))
+                .amount(charge.get("amount") != null ? new BigDecimal(charge.get("amount").toString()) : null)
+                .paymentMethod((String) charge.get("paymentMethod"))
+                .build());
+        }
+        try {
+            return ResponseEntity.ok(Map.of("approved", body.apply(simulator.chargeAll(payments))));
+        } catch (PaymentGatewayUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (PaymentGatewayException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
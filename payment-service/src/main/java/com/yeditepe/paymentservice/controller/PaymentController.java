@@ -1,18 +1,29 @@
 package com.yeditepe.paymentservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yeditepe.paymentservice.dto.CursorPage;
 import com.yeditepe.paymentservice.dto.PaymentDTO;
 import com.yeditepe.paymentservice.dto.PaymentRequestDTO;
+import com.yeditepe.paymentservice.dto.PaymentRollupDTO;
 import com.yeditepe.paymentservice.entity.PaymentStatus;
+import com.yeditepe.paymentservice.entity.RollupGranularity;
+import com.yeditepe.paymentservice.service.IdempotencyStore;
 import com.yeditepe.paymentservice.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -20,15 +31,38 @@ import java.util.List;
 @Slf4j
 public class PaymentController {
     
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    
     private final PaymentService paymentService;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
     
     /**
-     * Process a new payment
+     * Process a new payment. A repeated Idempotency-Key returns the original payment instead of charging again.
+     * With mode=async the payment is stored as PENDING and settled in a gateway batch: 202 with the URL to poll.
+     * A sync payment whose gateway outcome is unknown (UNKNOWN) is answered the same way.
      */
     @PostMapping("/process")
-    public ResponseEntity<PaymentDTO> processPayment(@RequestBody PaymentRequestDTO paymentRequest) {
-        log.info("Received payment request for booking: {}", paymentRequest.getBookingId());
-        PaymentDTO payment = paymentService.processPayment(paymentRequest);
+    public ResponseEntity<PaymentDTO> processPayment(
+            @RequestBody PaymentRequestDTO paymentRequest,
+            @RequestParam(value = "mode", defaultValue = "sync") String mode,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.info("Received payment request for booking: {} (mode={})", paymentRequest.getBookingId(), mode);
+        boolean async = "async".equalsIgnoreCase(mode);
+        if (!async && !"sync".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("mode must be sync or async");
+        }
+        Supplier<PaymentDTO> action = () -> async
+            ? paymentService.acceptPayment(paymentRequest)
+            : paymentService.processPayment(paymentRequest);
+        PaymentDTO payment = idempotencyKey == null
+            ? action.get()
+            : idempotencyStore.execute(idempotencyKey, mode.toLowerCase() + "|" + fingerprint(paymentRequest), action);
+        if (async || "UNKNOWN".equals(payment.getStatus())) {
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/payments/transaction/" + payment.getTransactionId()))
+                .body(payment);
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(payment);
     }
     
@@ -94,6 +128,38 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
     
+    /**
+     * Get payments by date range, one keyset page at a time
+     */
+    @GetMapping("/date-range/page")
+    public ResponseEntity<CursorPage<PaymentDTO>> getPaymentsPageByDateRange(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        log.info("Fetching payment page between {} and {}", startDate, endDate);
+        return ResponseEntity.ok(paymentService.getPaymentsPageByDateRange(startDate, endDate, cursor, size));
+    }
+    
+    /**
+     * Stream payments by date range as newline-delimited JSON
+     */
+    @GetMapping(value = "/date-range/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPaymentsByDateRange(
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        log.info("Streaming payments between {} and {}", startDate, endDate);
+        StreamingResponseBody body = out -> paymentService.streamPaymentsByDateRange(startDate, endDate, payment -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(payment));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+    
     /**
      * Get total completed payments
      */
@@ -115,4 +181,23 @@ public class PaymentController {
         BigDecimal total = paymentService.getTotalCompletedPaymentsByDateRange(startDate, endDate);
         return ResponseEntity.ok(total);
     }
+    
+    /**
+     * Get completed amount and count per minute, hour or day
+     */
+    @GetMapping("/analytics/rollups")
+    public ResponseEntity<List<PaymentRollupDTO>> getCompletedRollups(
+            @RequestParam("granularity") RollupGranularity granularity,
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+        log.info("Fetching {} payment rollups between {} and {}", granularity, startDate, endDate);
+        return ResponseEntity.ok(paymentService.getCompletedRollups(granularity, startDate, endDate));
+    }
+
+    // Card and account details are left out so they never sit in the idempotency store.
+    private String fingerprint(PaymentRequestDTO request) {
+        return request.getBookingId() + "|"
+            + (request.getAmount() != null ? request.getAmount().stripTrailingZeros().toPlainString() : null) + "|"
+            + request.getPaymentMethod();
+    }
 }
@@ -0,0 +1,19 @@
+package com.yeditepe.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentRollupDTO {
+    private String granularity;
+    private LocalDateTime bucketStart;
+    private BigDecimal completedAmount;
+    private long completedCount;
+}
@@ -7,17 +7,24 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_booking_id", columnList = "booking_id"),
+    @Index(name = "idx_transactions_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_transactions_created_id", columnList = "created_at, id")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class Payment {
     
+    // Pooled sequence so inserts can be JDBC-batched; IDENTITY forces one round trip per row.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "booking_id", nullable = false)
@@ -44,9 +51,10 @@ public class Payment {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Truncated to the column precision so the in-memory value buckets the same as the stored one.
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         updatedAt = LocalDateTime.now();
     }
     
@@ -0,0 +1,42 @@
+package com.yeditepe.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Completed amount and count for one minute, hour or day of payment creation time.
+ * Kept up to date in the same transaction as every change to or from COMPLETED.
+ */
+@Entity
+@Table(name = "payment_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_payment_rollups_bucket", columnNames = {"granularity", "bucket_start"})
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_rollups_seq")
+    @SequenceGenerator(name = "payment_rollups_seq", sequenceName = "payment_rollups_seq", allocationSize = 50)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "completed_amount", nullable = false)
+    private BigDecimal completedAmount;
+    
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+}
@@ -2,6 +2,10 @@ package com.yeditepe.paymentservice.entity;
 
 public enum PaymentStatus {
     PENDING,
+    // Claimed by a settlement dispatcher, charge in flight
+    SUBMITTING,
+    // Sent to the gateway without an answer; reconciled by transaction id
+    UNKNOWN,
     COMPLETED,
     FAILED,
     CANCELLED,
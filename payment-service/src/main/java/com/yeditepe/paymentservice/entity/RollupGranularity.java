@@ -0,0 +1,26 @@
+package com.yeditepe.paymentservice.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    // First bucket boundary at or after the given time.
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = bucketOf(time);
+        return floor.equals(time) ? floor : floor.plus(1, unit);
+    }
+}
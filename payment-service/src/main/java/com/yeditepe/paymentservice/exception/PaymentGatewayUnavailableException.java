@@ -0,0 +1,7 @@
+package com.yeditepe.paymentservice.exception;
+
+public class PaymentGatewayUnavailableException extends RuntimeException {
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+}
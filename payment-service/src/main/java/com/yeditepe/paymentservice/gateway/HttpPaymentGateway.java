@@ -0,0 +1,74 @@
+package com.yeditepe.paymentservice.gateway;
+
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.exception.PaymentGatewayException;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gateway reached over HTTP: {@code POST {url}/charges} answers {@code {"approved": true|false}},
+ * 429 when throttling and 5xx on errors; {@code POST {url}/charges/batch} takes a list and answers
+ * {@code {"approved": [true, false, ...]}}. This is the protocol of the local stub server.
+ * Single charges carry the transaction id as an {@code Idempotency-Key} header; batch entries
+ * are deduplicated by their {@code transactionId}.
+ */
+public class HttpPaymentGateway implements PaymentGateway {
+
+    private final RestTemplate restTemplate;
+    private final String url;
+
+    public HttpPaymentGateway(RestTemplate restTemplate, String url) {
+        this.restTemplate = restTemplate;
+        this.url = url;
+    }
+
+    @Override
+    public boolean charge(Payment payment) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", payment.getTransactionId());
+        Map<?, ?> response = post("/charges", new HttpEntity<>(toCharge(payment), headers));
+        return response != null && Boolean.TRUE.equals(response.get("approved"));
+    }
+
+    @Override
+    public List<Boolean> chargeAll(List<Payment> payments) {
+        List<Map<String, Object>> charges = new ArrayList<>(payments.size());
+        payments.forEach(payment -> charges.add(toCharge(payment)));
+        Map<?, ?> response = post("/charges/batch", charges);
+        Object approved = response != null ? response.get("approved") : null;
+        if (!(approved instanceof List<?> flags) || flags.size() != payments.size()) {
+            throw new PaymentGatewayException("Payment gateway returned a malformed batch response");
+        }
+        List<Boolean> result = new ArrayList<>(flags.size());
+        flags.forEach(flag -> result.add(Boolean.TRUE.equals(flag)));
+        return result;
+    }
+
+    private Map<?, ?> post(String path, Object body) {
+        try {
+            return restTemplate.postForObject(url + path, body, Map.class);
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            throw new PaymentGatewayUnavailableException("Payment gateway rate limit exceeded");
+        } catch (RestClientException e) {
+            throw new PaymentGatewayException("Payment gateway call failed: " + e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Object> toCharge(Payment payment) {
+        Map<String, Object> charge = new HashMap<>();
+        charge.put("transactionId", payment.getTransactionId());
+        charge.put("bookingId", payment.getBookingId());
+        charge.put("amount", payment.getAmount());
+        charge.put("paymentMethod", payment.getPaymentMethod());
+        return charge;
+    }
+}
@@ -0,0 +1,36 @@
+package com.yeditepe.paymentservice.gateway;
+
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.exception.PaymentGatewayException;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Charges a payment with an external payment provider. Implementations may block; callers
+ * are expected to enforce their own deadline. The payment's transaction id is the idempotency
+ * key: charging a transaction id again must return the first decision, not charge twice.
+ */
+public interface PaymentGateway {
+
+    /**
+     * @return true if the charge was approved, false if it was declined
+     * @throws PaymentGatewayUnavailableException if the gateway is throttling us
+     * @throws PaymentGatewayException if the gateway failed to give an answer
+     */
+    boolean charge(Payment payment);
+
+    /**
+     * Batch authorization: one gateway round trip for several charges. The result holds one
+     * approved/declined flag per payment, in order; a failure fails the whole batch.
+     * Gateways without a batch API fall back to charging one by one.
+     */
+    default List<Boolean> chargeAll(List<Payment> payments) {
+        List<Boolean> approved = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            approved.add(charge(payment));
+        }
+        return approved;
+    }
+}
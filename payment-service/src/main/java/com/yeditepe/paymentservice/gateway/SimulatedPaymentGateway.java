@@ -0,0 +1,111 @@
+package com.yeditepe.paymentservice.gateway;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yeditepe.paymentservice.config.PaymentGatewayProperties;
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.exception.PaymentGatewayException;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Local stand-in for a payment provider. Each charge (or batch of charges) first passes a
+ * token-bucket rate limit, then waits a log-normally distributed latency and either hangs, fails
+ * with a gateway error, or is approved/declined, with the shares taken from
+ * {@code payment.gateway.simulator.*}. Decisions are remembered per transaction id, so a charge
+ * that is retried gets its first answer back.
+ */
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_99 = 2.3263;
+
+    private final PaymentGatewayProperties.Simulator settings;
+    private final Random random;
+    private final double latencySigma;
+    private final double bucketSize;
+    private final double tokensPerNano;
+    private final Cache<String, Boolean> decisions = Caffeine.newBuilder().maximumSize(100_000).build();
+
+    private double tokens;
+    private long refilledAt;
+
+    public SimulatedPaymentGateway(PaymentGatewayProperties.Simulator settings) {
+        this.settings = settings;
+        this.random = settings.getSeed() != 0 ? new Random(settings.getSeed()) : new Random();
+        long median = settings.getMedianLatencyMs();
+        this.latencySigma = median > 0 && settings.getP99LatencyMs() > median
+            ? Math.log((double) settings.getP99LatencyMs() / median) / Z_99
+            : 0;
+        this.bucketSize = Math.max(settings.getRateLimitPerSecond(), 1);
+        this.tokensPerNano = settings.getRateLimitPerSecond() / 1e9;
+        this.tokens = bucketSize;
+        this.refilledAt = System.nanoTime();
+    }
+
+    @Override
+    public boolean charge(Payment payment) {
+        return chargeAll(List.of(payment)).get(0);
+    }
+
+    // A batch costs one rate-limit token and one latency sample, and hangs or fails as a whole.
+    @Override
+    public List<Boolean> chargeAll(List<Payment> payments) {
+        if (settings.getRateLimitPerSecond() > 0 && !takeToken()) {
+            throw new PaymentGatewayUnavailableException("Payment gateway rate limit exceeded");
+        }
+        double outcome = random.nextDouble();
+        try {
+            if (outcome < settings.getHangRate()) {
+                Thread.sleep(settings.getHangMs());
+                throw new PaymentGatewayException("Payment gateway did not answer");
+            }
+            Thread.sleep(latencyMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Payment gateway call interrupted");
+        }
+        if (outcome < settings.getHangRate() + settings.getErrorRate()) {
+            throw new PaymentGatewayException("Payment gateway error");
+        }
+
+        List<Boolean> approved = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            approved.add(decisions.get(payment.getTransactionId(), transactionId -> decide(payment)));
+        }
+        return approved;
+    }
+
+    private boolean decide(Payment payment) {
+        if (random.nextDouble() < settings.getApprovalRate()) {
+            log.info("Payment gateway approved transaction: {}", payment.getTransactionId());
+            return true;
+        }
+        log.warn("Payment gateway declined transaction: {}", payment.getTransactionId());
+        return false;
+    }
+
+    long latencyMillis() {
+        long median = settings.getMedianLatencyMs();
+        if (median <= 0) {
+            return 0;
+        }
+        return Math.round(median * Math.exp(latencySigma * random.nextGaussian()));
+    }
+
+    private synchronized boolean takeToken() {
+        long now = System.nanoTime();
+        tokens = Math.min(bucketSize, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -1,17 +1,25 @@
 package com.yeditepe.paymentservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.yeditepe.paymentservice.entity.Payment;
 import com.yeditepe.paymentservice.entity.PaymentStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -30,6 +38,78 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
         @Param("endDate") LocalDateTime endDate
     );
     
+    // Keyset pages over (createdAt, id); the Pageable only carries the page size.
+    @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :startDate AND :endDate ORDER BY p.createdAt, p.id")
+    List<Payment> findPaymentsByDateRange(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        Pageable pageable
+    );
+    
+    @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :startDate AND :endDate " +
+           "AND (p.createdAt > :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id > :afterId)) " +
+           "ORDER BY p.createdAt, p.id")
+    List<Payment> findPaymentsByDateRangeAfter(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate,
+        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :startDate AND :endDate ORDER BY p.createdAt, p.id")
+    Stream<Payment> streamPaymentsByDateRange(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
+    
+    // Async payments still waiting for settlement, oldest first.
+    @Query("SELECT p FROM Payment p WHERE p.status = 'PENDING' AND p.createdAt < :before ORDER BY p.id")
+    List<Payment> findPendingCreatedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+    
+    // Conditional so two concurrent callers cannot both move the same payment out of a status.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :to, p.updatedAt = :now WHERE p.id = :id AND p.status = :from")
+    int transitionStatus(
+        @Param("id") Long id,
+        @Param("from") String from,
+        @Param("to") String to,
+        @Param("now") LocalDateTime now
+    );
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = 'COMPLETED', p.paymentDate = :now, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status = :from")
+    int complete(
+        @Param("id") Long id,
+        @Param("from") String from,
+        @Param("now") LocalDateTime now
+    );
+    
+    // Charges whose outcome is still open, least recently tried first.
+    @Query("SELECT p FROM Payment p WHERE p.status IN :statuses AND p.updatedAt < :before ORDER BY p.updatedAt")
+    List<Payment> findUnsettledBefore(
+        @Param("statuses") Collection<String> statuses,
+        @Param("before") LocalDateTime before,
+        Pageable pageable
+    );
+    
+    // Only one caller (thread or instance) sees the row it read, so a retry is not run twice at once.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.updatedAt = :now WHERE p.id = :id AND p.status = :status AND p.updatedAt = :seen")
+    int claim(
+        @Param("id") Long id,
+        @Param("status") String status,
+        @Param("seen") LocalDateTime seen,
+        @Param("now") LocalDateTime now
+    );
+    
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM Payment p WHERE p.status = 'COMPLETED'")
+    Stream<Payment> streamCompletedPayments();
+    
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = 'COMPLETED'")
     BigDecimal getTotalCompletedPayments();
     
@@ -38,4 +118,11 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
         @Param("startDate") LocalDateTime startDate,
         @Param("endDate") LocalDateTime endDate
     );
+    
+    // Same as above with an exclusive end, for the sub-minute edges of a rollup range query.
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = 'COMPLETED' AND p.createdAt >= :startDate AND p.createdAt < :endDate")
+    BigDecimal getTotalCompletedPaymentsByDateRangeExclusive(
+        @Param("startDate") LocalDateTime startDate,
+        @Param("endDate") LocalDateTime endDate
+    );
 }
@@ -0,0 +1,48 @@
+package com.yeditepe.paymentservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.yeditepe.paymentservice.entity.PaymentRollup;
+import com.yeditepe.paymentservice.entity.RollupGranularity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentRollupRepository extends JpaRepository<PaymentRollup, Long> {
+    
+    boolean existsByGranularityAndBucketStart(RollupGranularity granularity, LocalDateTime bucketStart);
+    
+    // Applied in place so concurrent writers never overwrite each other's deltas. Native because
+    // Hibernate casts a BigDecimal parameter in JPQL arithmetic to a type H2 cannot parse.
+    @Modifying
+    @Query(value = "UPDATE payment_rollups SET completed_amount = completed_amount + :amount, " +
+                   "completed_count = completed_count + :count " +
+                   "WHERE granularity = :granularity AND bucket_start = :bucketStart", nativeQuery = true)
+    int addToBucket(
+        @Param("granularity") String granularity,
+        @Param("bucketStart") LocalDateTime bucketStart,
+        @Param("amount") BigDecimal amount,
+        @Param("count") long count
+    );
+    
+    @Query("SELECT COALESCE(SUM(r.completedAmount), 0) FROM PaymentRollup r WHERE r.granularity = :granularity")
+    BigDecimal sumCompletedAmount(@Param("granularity") RollupGranularity granularity);
+    
+    // Buckets starting in [from, to).
+    @Query("SELECT COALESCE(SUM(r.completedAmount), 0) FROM PaymentRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to")
+    BigDecimal sumCompletedAmount(
+        @Param("granularity") RollupGranularity granularity,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to
+    );
+    
+    List<PaymentRollup> findByGranularityAndBucketStartBetweenOrderByBucketStart(
+        RollupGranularity granularity, LocalDateTime startDate, LocalDateTime endDate);
+}
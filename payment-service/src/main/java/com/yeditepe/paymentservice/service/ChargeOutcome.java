@@ -0,0 +1,12 @@
+package com.yeditepe.paymentservice.service;
+
+/**
+ * Result of one gateway charge. UNKNOWN means the call may have reached the gateway but no
+ * answer came back (deadline, gateway error), so the charge can neither be counted as approved
+ * nor as declined until it is reconciled.
+ */
+public enum ChargeOutcome {
+    APPROVED,
+    DECLINED,
+    UNKNOWN
+}
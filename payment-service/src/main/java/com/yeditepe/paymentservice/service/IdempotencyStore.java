@@ -0,0 +1,84 @@
+package com.yeditepe.paymentservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yeditepe.paymentservice.dto.PaymentDTO;
+import com.yeditepe.paymentservice.exception.IdempotencyKeyReusedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers processed payments by Idempotency-Key. The first request with a key charges;
+ * concurrent duplicates block until it finishes and get its result, later replays get the
+ * stored payment. A failed charge is forgotten so the caller can retry it.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> cache;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${payment.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${payment.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "paymentIdempotency");
+    }
+
+    public PaymentDTO execute(String key, String fingerprint, Supplier<PaymentDTO> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        Entry created = new Entry(fingerprint);
+        Entry entry = cache.asMap().putIfAbsent(key, created);
+        if (entry != null) {
+            if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return await(entry.result);
+        }
+
+        try {
+            PaymentDTO payment = action.get();
+            created.result.complete(payment);
+            return payment;
+        } catch (RuntimeException ex) {
+            cache.asMap().remove(key, created);
+            created.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private PaymentDTO await(CompletableFuture<PaymentDTO> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<PaymentDTO> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -1,56 +1,172 @@
 package com.yeditepe.paymentservice.service;
 
+import com.yeditepe.paymentservice.config.PaymentGatewayProperties;
 import com.yeditepe.paymentservice.dto.PaymentRequestDTO;
 import com.yeditepe.paymentservice.entity.Payment;
 
-import lombok.RequiredArgsConstructor;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import com.yeditepe.paymentservice.gateway.PaymentGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Calls the configured {@link PaymentGateway} with a deadline (payment.gateway.timeout-ms) on a bounded pool
+ * (payment.gateway.max-concurrent). A call that misses the deadline or fails may still have been charged,
+ * so its outcome is {@link ChargeOutcome#UNKNOWN} rather than declined;
+ * when every gateway slot is busy the request is rejected instead of queueing behind a slow gateway.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PaymentProcessingService {
-    
-    private static final Random random = new Random();
-    
+
+    private final PaymentGateway paymentGateway;
+    private final ThreadPoolExecutor gatewayCalls;
+    private final Semaphore slots;
+    private final long timeoutMillis;
+    private final Counter timeouts;
+    private final Counter rejected;
+
+    public PaymentProcessingService(PaymentGateway paymentGateway,
+                                    PaymentGatewayProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.paymentGateway = paymentGateway;
+        int maxConcurrent = properties.getMaxConcurrent();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.gatewayCalls = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            job -> {
+                Thread thread = new Thread(job, "payment-gateway-" + threadIds.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.gatewayCalls.allowCoreThreadTimeOut(true);
+        this.slots = new Semaphore(maxConcurrent);
+        this.timeoutMillis = properties.getTimeoutMs();
+        this.timeouts = Counter.builder("payment.gateway.timeouts").register(meterRegistry);
+        this.rejected = Counter.builder("payment.gateway.rejected").register(meterRegistry);
+    }
+
+    public ChargeOutcome processPayment(Payment payment, PaymentRequestDTO paymentRequest) {
+        if (!isValid(paymentRequest)) {
+            return ChargeOutcome.DECLINED;
+        }
+        return charge(payment);
+    }
+
     /**
-     * Simulates payment processing through a payment gateway
-     * In a real scenario, this would integrate with Stripe, PayPal, etc.
+     * Charges one payment. Safe to repeat for a payment whose outcome is unknown: the gateway
+     * answers a transaction id it has already seen with its original decision.
      */
-    public boolean processPayment(Payment payment, PaymentRequestDTO paymentRequest) {
-        log.info("Processing payment through gateway for transaction: {}", payment.getTransactionId());
-        
+    public ChargeOutcome charge(Payment payment) {
+        // A slot is held until the gateway call really ends, so calls abandoned at the deadline still count.
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            throw new PaymentGatewayUnavailableException("Payment gateway is at capacity, try again later");
+        }
+        Future<Boolean> call = gatewayCalls.submit(() -> {
+            try {
+                log.info("Processing payment through gateway for transaction: {}", payment.getTransactionId());
+                return paymentGateway.charge(payment);
+            } finally {
+                slots.release();
+            }
+        });
         try {
-            // Validate payment request
-            validatePaymentRequest(paymentRequest);
-            
-            // Simulate payment gateway call (80% success rate for demo)
-            boolean isSuccessful = random.nextDouble() < 0.80;
-            
-            if (isSuccessful) {
-                log.info("Payment gateway approved transaction: {}", payment.getTransactionId());
-                return true;
-            } else {
-                log.warn("Payment gateway declined transaction: {}", payment.getTransactionId());
-                return false;
+            return call.get(timeoutMillis, TimeUnit.MILLISECONDS) ? ChargeOutcome.APPROVED : ChargeOutcome.DECLINED;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            timeouts.increment();
+            log.warn("Payment gateway timed out after {} ms for transaction: {}", timeoutMillis, payment.getTransactionId());
+            return ChargeOutcome.UNKNOWN;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentGatewayUnavailableException throttled) {
+                rejected.increment();
+                throw throttled;
+            }
+            log.warn("Payment gateway failed for transaction {}: {}", payment.getTransactionId(), e.getCause().getMessage());
+            return ChargeOutcome.UNKNOWN;
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            return ChargeOutcome.UNKNOWN;
+        }
+    }
+
+    /**
+     * Charges a batch in one gateway call, waiting for a free slot instead of failing fast.
+     * Returns one outcome per payment; a timed-out or failed batch comes back all UNKNOWN.
+     * Throws PaymentGatewayUnavailableException when the gateway throttles, so the batch can be retried.
+     */
+    public List<ChargeOutcome> processBatch(List<Payment> payments) throws InterruptedException {
+        slots.acquire();
+        Future<List<Boolean>> call = gatewayCalls.submit(() -> {
+            try {
+                return paymentGateway.chargeAll(payments);
+            } finally {
+                slots.release();
+            }
+        });
+        try {
+            List<Boolean> approved = call.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            List<ChargeOutcome> outcomes = new ArrayList<>(approved.size());
+            approved.forEach(ok -> outcomes.add(ok ? ChargeOutcome.APPROVED : ChargeOutcome.DECLINED));
+            return outcomes;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            timeouts.increment();
+            log.warn("Payment gateway timed out after {} ms for a batch of {}", timeoutMillis, payments.size());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PaymentGatewayUnavailableException throttled) {
+                rejected.increment();
+                throw throttled;
             }
-        } catch (Exception e) {
-            log.error("Error processing payment: {}", e.getMessage(), e);
+            log.warn("Payment gateway failed for a batch of {}: {}", payments.size(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            throw e;
+        }
+        return Collections.nCopies(payments.size(), ChargeOutcome.UNKNOWN);
+    }
+
+    public boolean isValid(PaymentRequestDTO paymentRequest) {
+        try {
+            validatePaymentRequest(paymentRequest);
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.error("Error processing payment: {}", e.getMessage());
             return false;
         }
     }
-    
+
+    @PreDestroy
+    public void shutdown() {
+        gatewayCalls.shutdownNow();
+    }
+
     private void validatePaymentRequest(PaymentRequestDTO paymentRequest) {
         if (paymentRequest.getBookingId() == null || paymentRequest.getBookingId() <= 0) {
             throw new IllegalArgumentException("Invalid booking ID");
         }
-        
+
         if (paymentRequest.getAmount() == null || paymentRequest.getAmount().signum() <= 0) {
             throw new IllegalArgumentException("Invalid payment amount");
         }
-        
+
         if (paymentRequest.getPaymentMethod() == null) {
             throw new IllegalArgumentException("Payment method is required");
         }
@@ -0,0 +1,74 @@
+package com.yeditepe.paymentservice.service;
+
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import com.yeditepe.paymentservice.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Settles payments whose gateway outcome is not known. Each one is charged again under its own
+ * transaction id, which the gateway treats as an idempotency key: a charge it already decided is
+ * answered with that decision instead of being taken twice. Rows are claimed with a conditional
+ * update first, so several instances can scan at once without retrying the same payment together.
+ */
+@Component
+@Slf4j
+public class PaymentReconciler {
+
+    // SUBMITTING rows older than retry-after were claimed by a dispatcher that crashed or gave up mid-batch.
+    private static final List<String> UNSETTLED = List.of("UNKNOWN", "SUBMITTING");
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentProcessingService paymentProcessingService;
+    private final PaymentService paymentService;
+    private final Duration retryAfter;
+    private final int batchSize;
+
+    public PaymentReconciler(PaymentRepository paymentRepository,
+                             PaymentProcessingService paymentProcessingService,
+                             PaymentService paymentService,
+                             @Value("${payment.reconcile.retry-after-seconds:60}") long retryAfterSeconds,
+                             @Value("${payment.reconcile.batch-size:100}") int batchSize) {
+        this.paymentRepository = paymentRepository;
+        this.paymentProcessingService = paymentProcessingService;
+        this.paymentService = paymentService;
+        this.retryAfter = Duration.ofSeconds(retryAfterSeconds);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reconcile.interval-ms:30000}",
+               initialDelayString = "${payment.reconcile.interval-ms:30000}")
+    public void reconcile() {
+        List<Payment> unsettled = paymentRepository.findUnsettledBefore(
+            UNSETTLED, LocalDateTime.now().minus(retryAfter), PageRequest.of(0, batchSize));
+        int settled = 0;
+        for (Payment payment : unsettled) {
+            if (paymentRepository.claim(payment.getId(), payment.getStatus(), payment.getUpdatedAt(), LocalDateTime.now()) == 0) {
+                continue;
+            }
+            ChargeOutcome outcome;
+            try {
+                outcome = paymentProcessingService.charge(payment);
+            } catch (PaymentGatewayUnavailableException e) {
+                // This payment was claimed, so it comes back after retry-after; the rest on the next scan.
+                log.warn("Payment gateway busy, reconciliation paused: {}", e.getMessage());
+                break;
+            }
+            if (outcome != ChargeOutcome.UNKNOWN) {
+                paymentService.settle(payment, payment.getStatus(), outcome);
+                settled++;
+            }
+        }
+        if (settled > 0) {
+            log.info("Reconciled {} of {} payments with an unknown outcome", settled, unsettled.size());
+        }
+    }
+}
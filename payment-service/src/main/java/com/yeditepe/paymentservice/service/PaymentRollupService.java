@@ -0,0 +1,246 @@
+package com.yeditepe.paymentservice.service;
+
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.entity.PaymentRollup;
+import com.yeditepe.paymentservice.entity.RollupGranularity;
+import com.yeditepe.paymentservice.repository.PaymentRepository;
+import com.yeditepe.paymentservice.repository.PaymentRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Per-minute, per-hour and per-day totals of COMPLETED payments, keyed by payment creation time
+ * like the date-range queries they replace. Every change to or from COMPLETED applies its delta
+ * here in the same transaction, and range totals are assembled from the coarsest buckets that fit,
+ * so a query reads at most a few hundred bucket rows plus the sub-minute edges of the range.
+ */
+@Service
+@Slf4j
+public class PaymentRollupService {
+
+    private static final RollupGranularity[] GRANULARITIES = RollupGranularity.values();
+
+    private final PaymentRollupRepository rollupRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final boolean rebuildOnStartup;
+    // Newest bucket known to exist per granularity; nearly every payment lands in one of these.
+    private final Map<RollupGranularity, LocalDateTime> knownBuckets = new ConcurrentHashMap<>();
+
+    public PaymentRollupService(PaymentRollupRepository rollupRepository,
+                                PaymentRepository paymentRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${payment.rollup.rebuild-on-startup:true}") boolean rebuildOnStartup) {
+        this.rollupRepository = rollupRepository;
+        this.paymentRepository = paymentRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    // Runs before the web server starts, so no payment can complete while the buckets are filled.
+    @PostConstruct
+    public void rebuildIfEmpty() {
+        if (rebuildOnStartup && rollupRepository.count() == 0) {
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    /**
+     * Recomputes every bucket from the transactions table. Only for filling the rollups
+     * the first time; writers that complete payments meanwhile would be counted twice.
+     */
+    @Transactional
+    public void rebuild() {
+        rollupRepository.deleteAllInBatch();
+        knownBuckets.clear();
+        Map<BucketKey, Delta> deltas = new TreeMap<>();
+        try (Stream<Payment> payments = paymentRepository.streamCompletedPayments()) {
+            payments.forEach(payment -> {
+                collect(deltas, payment, 1);
+                entityManager.detach(payment);
+            });
+        }
+        List<PaymentRollup> rollups = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> rollups.add(PaymentRollup.builder()
+            .granularity(key.granularity())
+            .bucketStart(key.bucketStart())
+            .completedAmount(delta.amount())
+            .completedCount(delta.count())
+            .build()));
+        rollupRepository.saveAll(rollups);
+        log.info("Rebuilt {} payment rollup buckets", rollups.size());
+    }
+
+    /**
+     * Creates the buckets these payments will be added to, each committed on its own. Writers call
+     * this before the transaction that records the payments: creating a bucket from inside it would
+     * take a second pooled connection while holding one, and enough such writers at a minute
+     * boundary hold every connection between them. Not transactional itself for the same reason.
+     */
+    public void prepareBuckets(Collection<Payment> payments) {
+        Set<BucketKey> keys = new TreeSet<>();
+        payments.forEach(payment -> collect(keys, payment));
+        for (BucketKey key : keys) {
+            if (key.bucketStart().equals(knownBuckets.get(key.granularity()))) {
+                continue;
+            }
+            if (!rollupRepository.existsByGranularityAndBucketStart(key.granularity(), key.bucketStart())) {
+                createBucket(key);
+            }
+            knownBuckets.merge(key.granularity(), key.bucketStart(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCompleted(Collection<Payment> payments) {
+        apply(payments, 1);
+    }
+
+    // A payment leaving COMPLETED, e.g. a refund.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReversed(Collection<Payment> payments) {
+        apply(payments, -1);
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalCompleted() {
+        return rollupRepository.sumCompletedAmount(RollupGranularity.DAY);
+    }
+
+    /**
+     * Completed total for payments created in [startDate, endDate], matching
+     * {@link PaymentRepository#getTotalCompletedPaymentsByDateRange}.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getTotalCompleted(LocalDateTime startDate, LocalDateTime endDate) {
+        if (endDate.isBefore(startDate)) {
+            return BigDecimal.ZERO;
+        }
+        LocalDateTime from = RollupGranularity.MINUTE.ceil(startDate);
+        LocalDateTime to = RollupGranularity.MINUTE.bucketOf(endDate);
+        if (!from.isBefore(to)) {
+            return paymentRepository.getTotalCompletedPaymentsByDateRange(startDate, endDate);
+        }
+        // The partial minutes at either end are summed from the table; each covers under a minute of rows.
+        BigDecimal head = from.equals(startDate)
+            ? BigDecimal.ZERO
+            : paymentRepository.getTotalCompletedPaymentsByDateRangeExclusive(startDate, from);
+        BigDecimal tail = paymentRepository.getTotalCompletedPaymentsByDateRange(to, endDate);
+        return head.add(sumBuckets(0, from, to)).add(tail);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PaymentRollup> getRollups(RollupGranularity granularity, LocalDateTime startDate, LocalDateTime endDate) {
+        return rollupRepository.findByGranularityAndBucketStartBetweenOrderByBucketStart(
+            granularity, granularity.bucketOf(startDate), endDate);
+    }
+
+    // [from, to) on bucket boundaries of GRANULARITIES[level]: the coarser level covers the middle.
+    private BigDecimal sumBuckets(int level, LocalDateTime from, LocalDateTime to) {
+        RollupGranularity granularity = GRANULARITIES[level];
+        if (level + 1 == GRANULARITIES.length) {
+            return sum(granularity, from, to);
+        }
+        RollupGranularity coarser = GRANULARITIES[level + 1];
+        LocalDateTime coarseFrom = coarser.ceil(from);
+        LocalDateTime coarseTo = coarser.bucketOf(to);
+        if (!coarseFrom.isBefore(coarseTo)) {
+            return sum(granularity, from, to);
+        }
+        return sum(granularity, from, coarseFrom)
+            .add(sumBuckets(level + 1, coarseFrom, coarseTo))
+            .add(sum(granularity, coarseTo, to));
+    }
+
+    private BigDecimal sum(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return from.isBefore(to) ? rollupRepository.sumCompletedAmount(granularity, from, to) : BigDecimal.ZERO;
+    }
+
+    // Buckets are updated in key order so concurrent writers lock them in the same order.
+    private void apply(Collection<Payment> payments, int sign) {
+        Map<BucketKey, Delta> deltas = new TreeMap<>();
+        payments.forEach(payment -> collect(deltas, payment, sign));
+        deltas.forEach((key, delta) -> {
+            // Only for a bucket prepareBuckets didn't see, e.g. one a rebuild dropped meanwhile.
+            if (add(key, delta) == 0) {
+                createBucket(key);
+                add(key, delta);
+            }
+        });
+    }
+
+    private int add(BucketKey key, Delta delta) {
+        return rollupRepository.addToBucket(key.granularity().name(), key.bucketStart(), delta.amount(), delta.count());
+    }
+
+    // Committed on its own so the bucket row is visible to every writer; losing the race is fine.
+    private void createBucket(BucketKey key) {
+        try {
+            newTransaction.executeWithoutResult(status -> rollupRepository.saveAndFlush(PaymentRollup.builder()
+                .granularity(key.granularity())
+                .bucketStart(key.bucketStart())
+                .completedAmount(BigDecimal.ZERO)
+                .completedCount(0)
+                .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Rollup bucket {} {} created concurrently", key.granularity(), key.bucketStart());
+        }
+    }
+
+    private void collect(Set<BucketKey> keys, Payment payment) {
+        for (RollupGranularity granularity : GRANULARITIES) {
+            keys.add(new BucketKey(granularity, granularity.bucketOf(payment.getCreatedAt())));
+        }
+    }
+
+    private void collect(Map<BucketKey, Delta> deltas, Payment payment, int sign) {
+        Delta delta = new Delta(sign > 0 ? payment.getAmount() : payment.getAmount().negate(), sign);
+        for (RollupGranularity granularity : GRANULARITIES) {
+            deltas.merge(new BucketKey(granularity, granularity.bucketOf(payment.getCreatedAt())), delta, Delta::plus);
+        }
+    }
+
+    private record BucketKey(RollupGranularity granularity, LocalDateTime bucketStart) implements Comparable<BucketKey> {
+        private static final Comparator<BucketKey> ORDER =
+            Comparator.comparing(BucketKey::granularity).thenComparing(BucketKey::bucketStart);
+
+        @Override
+        public int compareTo(BucketKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record Delta(BigDecimal amount, long count) {
+        Delta plus(Delta other) {
+            return new Delta(amount.add(other.amount), count + other.count);
+        }
+    }
+}
@@ -1,65 +1,136 @@
 package com.yeditepe.paymentservice.service;
 
+import com.yeditepe.paymentservice.dto.CursorPage;
 import com.yeditepe.paymentservice.dto.PaymentDTO;
 import com.yeditepe.paymentservice.dto.PaymentRequestDTO;
+import com.yeditepe.paymentservice.dto.PaymentRollupDTO;
 import com.yeditepe.paymentservice.entity.Payment;
 import com.yeditepe.paymentservice.entity.PaymentMethod;
 import com.yeditepe.paymentservice.entity.PaymentStatus;
+import com.yeditepe.paymentservice.entity.RollupGranularity;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
 import com.yeditepe.paymentservice.exception.PaymentNotFoundException;
 import com.yeditepe.paymentservice.repository.PaymentRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PaymentService {
     
+    private static final int MAX_PAGE_SIZE = 500;
+    
     private final PaymentRepository paymentRepository;
     private final PaymentProcessingService paymentProcessingService;
+    private final PaymentSettlementDispatcher settlementDispatcher;
+    private final PaymentRollupService rollupService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
     
-    @Transactional
+    // Not @Transactional: the payment is committed as PENDING first, so a charge that goes through
+    // is never lost, and the gateway is then called with no connection held. A call whose outcome
+    // is unknown (deadline passed, gateway error) leaves the payment UNKNOWN for the reconciler.
     public PaymentDTO processPayment(PaymentRequestDTO paymentRequest) {
         log.info("Processing payment for booking: {}", paymentRequest.getBookingId());
+        applyDefaultMethod(paymentRequest);
         
         if (paymentRequest.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Payment amount must be greater than zero");
         }
         
-        Payment payment = Payment.builder()
+        Payment payment = paymentRepository.save(Payment.builder()
             .bookingId(paymentRequest.getBookingId())
             .amount(paymentRequest.getAmount())
-            .paymentMethod(paymentRequest.getPaymentMethod() != null 
-                ? paymentRequest.getPaymentMethod().toString()
-                : "CREDIT_CARD")
+            .paymentMethod(paymentRequest.getPaymentMethod().toString())
             .status("PENDING")
             .transactionId(generateTransactionId())
-            .build();
-        
-        Payment savedPayment = paymentRepository.save(payment);
-        log.debug("Payment created with ID: {}", savedPayment.getId());
+            .build());
         
         // Process payment through payment gateway
-        boolean isProcessed = paymentProcessingService.processPayment(savedPayment, paymentRequest);
+        ChargeOutcome outcome;
+        try {
+            outcome = paymentProcessingService.processPayment(payment, paymentRequest);
+        } catch (PaymentGatewayUnavailableException e) {
+            // Rejected before anything reached the gateway.
+            settle(payment, "PENDING", ChargeOutcome.DECLINED);
+            throw e;
+        }
         
-        if (isProcessed) {
-            savedPayment.setStatus("COMPLETED");
-            savedPayment.setPaymentDate(LocalDateTime.now());
-            log.info("Payment processed successfully. Transaction ID: {}", savedPayment.getTransactionId());
-        } else {
-            savedPayment.setStatus("FAILED");
-            log.warn("Payment processing failed. Transaction ID: {}", savedPayment.getTransactionId());
+        Payment settled = settle(payment, "PENDING", outcome);
+        switch (outcome) {
+            case APPROVED -> log.info("Payment processed successfully. Transaction ID: {}", settled.getTransactionId());
+            case DECLINED -> log.warn("Payment processing failed. Transaction ID: {}", settled.getTransactionId());
+            case UNKNOWN -> log.warn("Payment outcome unknown, left for reconciliation. Transaction ID: {}", settled.getTransactionId());
+        }
+        return mapToDTO(settled);
+    }
+    
+    /**
+     * Records the gateway's answer for a payment still in the given status, together with its
+     * rollup delta. Returns the payment as stored; unchanged if someone else settled it first.
+     */
+    public Payment settle(Payment payment, String from, ChargeOutcome outcome) {
+        if (outcome == ChargeOutcome.APPROVED) {
+            rollupService.prepareBuckets(List.of(payment));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            int updated = switch (outcome) {
+                case APPROVED -> paymentRepository.complete(payment.getId(), from, now);
+                case DECLINED -> paymentRepository.transitionStatus(payment.getId(), from, "FAILED", now);
+                case UNKNOWN -> paymentRepository.transitionStatus(payment.getId(), from, "UNKNOWN", now);
+            };
+            Payment stored = paymentRepository.findById(payment.getId()).orElseThrow();
+            if (updated == 1 && outcome == ChargeOutcome.APPROVED) {
+                rollupService.recordCompleted(List.of(stored));
+            }
+            return stored;
+        });
+    }
+    
+    // mode=async: stores the payment as PENDING and queues it for batched settlement; poll it by transaction id.
+    public PaymentDTO acceptPayment(PaymentRequestDTO paymentRequest) {
+        log.info("Accepting payment for booking: {}", paymentRequest.getBookingId());
+        applyDefaultMethod(paymentRequest);
+        
+        if (paymentRequest.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Payment amount must be greater than zero");
+        }
+        if (!settlementDispatcher.hasCapacity()) {
+            throw new PaymentGatewayUnavailableException("Payment queue is full, try again later");
         }
         
-        Payment updatedPayment = paymentRepository.save(savedPayment);
-        return mapToDTO(updatedPayment);
+        boolean valid = paymentProcessingService.isValid(paymentRequest);
+        Payment payment = Payment.builder()
+            .bookingId(paymentRequest.getBookingId())
+            .amount(paymentRequest.getAmount())
+            .paymentMethod(paymentRequest.getPaymentMethod().toString())
+            .status(valid ? "PENDING" : "FAILED")
+            .transactionId(generateTransactionId())
+            .build();
+        
+        Payment savedPayment = paymentRepository.save(payment);
+        if (valid && !settlementDispatcher.submit(savedPayment)) {
+            log.warn("Settlement queue full, payment {} left for recovery", savedPayment.getTransactionId());
+        }
+        return mapToDTO(savedPayment);
     }
     
     @Transactional(readOnly = true)
@@ -107,24 +178,40 @@ public class PaymentService {
             throw new IllegalStateException("Only completed payments can be refunded");
         }
         
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentRepository.transitionStatus(paymentId, "COMPLETED", "REFUNDED", now) == 0) {
+            throw new IllegalStateException("Only completed payments can be refunded");
+        }
         payment.setStatus("REFUNDED");
-        payment.setUpdatedAt(LocalDateTime.now());
+        payment.setUpdatedAt(now);
+        rollupService.recordReversed(List.of(payment));
         
-        Payment refundedPayment = paymentRepository.save(payment);
         log.info("Payment refunded successfully. ID: {}", paymentId);
-        return mapToDTO(refundedPayment);
+        return mapToDTO(payment);
     }
     
     @Transactional(readOnly = true)
     public BigDecimal getTotalCompletedPayments() {
         log.debug("Calculating total completed payments");
-        return paymentRepository.getTotalCompletedPayments();
+        return rollupService.getTotalCompleted();
     }
     
     @Transactional(readOnly = true)
     public BigDecimal getTotalCompletedPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         log.debug("Calculating total completed payments between {} and {}", startDate, endDate);
-        return paymentRepository.getTotalCompletedPaymentsByDateRange(startDate, endDate);
+        return rollupService.getTotalCompleted(startDate, endDate);
+    }
+    
+    public List<PaymentRollupDTO> getCompletedRollups(RollupGranularity granularity,
+                                                      LocalDateTime startDate, LocalDateTime endDate) {
+        return rollupService.getRollups(granularity, startDate, endDate).stream()
+            .map(rollup -> PaymentRollupDTO.builder()
+                .granularity(rollup.getGranularity().name())
+                .bucketStart(rollup.getBucketStart())
+                .completedAmount(rollup.getCompletedAmount())
+                .completedCount(rollup.getCompletedCount())
+                .build())
+            .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
@@ -136,6 +223,67 @@ public class PaymentService {
             .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentDTO> getPaymentsPageByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                             String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        
+        List<Payment> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = paymentRepository.findPaymentsByDateRange(startDate, endDate, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = paymentRepository.findPaymentsByDateRangeAfter(
+                startDate, endDate, LocalDateTime.parse(position[0]), Long.valueOf(position[1]), limit);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Payment> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(page.get(pageSize - 1)) : null;
+        return new CursorPage<>(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+    
+    /**
+     * Hands every payment in the range to the sink in (createdAt, id) order without
+     * materialising the result; rows are detached as soon as they are written.
+     */
+    @Transactional(readOnly = true)
+    public void streamPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Consumer<PaymentDTO> sink) {
+        try (Stream<Payment> payments = paymentRepository.streamPaymentsByDateRange(startDate, endDate)) {
+            payments.forEach(payment -> {
+                sink.accept(mapToDTO(payment));
+                entityManager.detach(payment);
+            });
+        }
+    }
+    
+    private String encodeCursor(Payment payment) {
+        String position = payment.getCreatedAt() + "|" + payment.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    // A request without a method is charged by card; set before validation so both agree on it.
+    private void applyDefaultMethod(PaymentRequestDTO paymentRequest) {
+        if (paymentRequest.getPaymentMethod() == null) {
+            paymentRequest.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        }
+    }
+    
     private String generateTransactionId() {
         return "TXN-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
     }
@@ -0,0 +1,253 @@
+package com.yeditepe.paymentservice.service;
+
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import com.yeditepe.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Settles payments accepted with {@code mode=async}. Dispatcher threads take PENDING payments
+ * off a bounded queue, group them into gateway batches (payment.async.batch-size, or whatever
+ * arrived within payment.async.window-ms), charge each batch in one gateway call and write the
+ * outcomes back with one JDBC batch update. Each payment is claimed (PENDING to SUBMITTING)
+ * before it is charged, so a payment queued by two instances is only sent by one of them.
+ * PENDING rows that are not queued (queue full, restart) are picked up again by a periodic scan
+ * once they are older than stale-after-seconds; rows left SUBMITTING or UNKNOWN by a crash or a
+ * failed batch may have been charged and go to the {@link PaymentReconciler} instead.
+ */
+@Component
+@Slf4j
+public class PaymentSettlementDispatcher {
+
+    private static final String CLAIM_SQL =
+        "UPDATE transactions SET status = 'SUBMITTING', updated_at = ? WHERE id = ? AND status = 'PENDING'";
+    private static final String UNCLAIM_SQL =
+        "UPDATE transactions SET status = 'PENDING', updated_at = ? WHERE id = ? AND status = 'SUBMITTING'";
+    private static final String SETTLE_SQL =
+        "UPDATE transactions SET status = ?, payment_date = ?, updated_at = ? WHERE id = ? AND status = 'SUBMITTING'";
+
+    private final PaymentProcessingService paymentProcessingService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentRollupService rollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Payment> queue;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final int batchSize;
+    private final long windowNanos;
+    private final int dispatcherCount;
+    private final Duration staleAfter;
+    private final long throttleBackoffMillis;
+    private final DistributionSummary batchSizes;
+    private final List<Thread> dispatchers = new ArrayList<>();
+
+    public PaymentSettlementDispatcher(PaymentProcessingService paymentProcessingService,
+                                       PaymentRepository paymentRepository,
+                                       PaymentRollupService rollupService,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${payment.async.batch-size:100}") int batchSize,
+                                       @Value("${payment.async.window-ms:20}") long windowMs,
+                                       @Value("${payment.async.queue-capacity:10000}") int capacity,
+                                       @Value("${payment.async.dispatchers:4}") int dispatcherCount,
+                                       @Value("${payment.async.stale-after-seconds:300}") long staleAfterSeconds,
+                                       @Value("${payment.async.throttle-backoff-ms:1000}") long throttleBackoffMillis) {
+        this.paymentProcessingService = paymentProcessingService;
+        this.paymentRepository = paymentRepository;
+        this.rollupService = rollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(batchSize, 1);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.dispatcherCount = Math.max(dispatcherCount, 1);
+        this.staleAfter = Duration.ofSeconds(staleAfterSeconds);
+        this.throttleBackoffMillis = throttleBackoffMillis;
+
+        Gauge.builder("payment.async.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("payment.async.batch.size")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (int i = 1; i <= dispatcherCount; i++) {
+            Thread thread = new Thread(this::dispatchLoop, "payment-settlement-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            dispatchers.add(thread);
+        }
+    }
+
+    // Payments still queued at shutdown stay PENDING and are recovered by the next instance's scan.
+    @PreDestroy
+    public void stop() {
+        dispatchers.forEach(Thread::interrupt);
+    }
+
+    public boolean hasCapacity() {
+        return queue.remainingCapacity() > 0;
+    }
+
+    // False if the queue is full; the payment then waits for the recovery scan.
+    public boolean submit(Payment payment) {
+        if (!queued.add(payment.getId())) {
+            return true;
+        }
+        if (!queue.offer(payment)) {
+            queued.remove(payment.getId());
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.async.recovery-interval-ms:60000}",
+               initialDelayString = "${payment.async.recovery-interval-ms:60000}")
+    public void recoverStale() {
+        List<Payment> stale = paymentRepository.findPendingCreatedBefore(
+            LocalDateTime.now().minus(staleAfter), PageRequest.of(0, batchSize * 10));
+        int requeued = 0;
+        for (Payment payment : stale) {
+            if (!queued.contains(payment.getId()) && submit(payment)) {
+                requeued++;
+            }
+        }
+        if (requeued > 0) {
+            log.info("Re-queued {} stale PENDING payments", requeued);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Payment> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                collect(batch);
+                settle(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                // Rows still PENDING are retried by the recovery scan, claimed ones by the reconciler.
+                log.error("Settling a batch of {} payments failed: {}", batch.size(), ex.getMessage(), ex);
+                batch.forEach(payment -> queued.remove(payment.getId()));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Fills the batch until it is full or the window since its first payment has passed.
+    private void collect(List<Payment> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long left = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || left <= 0) {
+                return;
+            }
+            Payment next = queue.poll(left, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void settle(List<Payment> batch) throws InterruptedException {
+        List<Payment> claimed = claim(batch);
+        if (claimed.isEmpty()) {
+            batch.forEach(payment -> queued.remove(payment.getId()));
+            return;
+        }
+        batchSizes.record(claimed.size());
+        List<ChargeOutcome> outcomes;
+        try {
+            outcomes = paymentProcessingService.processBatch(claimed);
+        } catch (PaymentGatewayUnavailableException e) {
+            // Throttled before anything was charged: hand the rows back and queue them again.
+            log.warn("Payment gateway throttled a batch of {}, retrying in {} ms", claimed.size(), throttleBackoffMillis);
+            jdbcTemplate.batchUpdate(UNCLAIM_SQL, rows(claimed, payment -> new Object[] {now(), payment.getId()}));
+            Thread.sleep(throttleBackoffMillis);
+            batch.forEach(payment -> queued.remove(payment.getId()));
+            claimed.forEach(this::submit);
+            return;
+        }
+
+        Timestamp now = now();
+        List<Object[]> rows = new ArrayList<>(claimed.size());
+        List<Payment> approved = new ArrayList<>(claimed.size());
+        for (int i = 0; i < claimed.size(); i++) {
+            ChargeOutcome outcome = outcomes.get(i);
+            boolean ok = outcome == ChargeOutcome.APPROVED;
+            String status = ok ? "COMPLETED" : outcome == ChargeOutcome.DECLINED ? "FAILED" : "UNKNOWN";
+            rows.add(new Object[] {status, ok ? now : null, now, claimed.get(i).getId()});
+            if (ok) {
+                approved.add(claimed.get(i));
+            }
+        }
+        rollupService.prepareBuckets(approved);
+        // Only rows still SUBMITTING are touched, so a payment is never settled (or rolled up) twice.
+        transactionTemplate.executeWithoutResult(status -> {
+            int[] updated = jdbcTemplate.batchUpdate(SETTLE_SQL, rows);
+            List<Payment> completed = new ArrayList<>(claimed.size());
+            for (int i = 0; i < claimed.size(); i++) {
+                if (outcomes.get(i) == ChargeOutcome.APPROVED && updated[i] != 0) {
+                    completed.add(claimed.get(i));
+                }
+            }
+            rollupService.recordCompleted(completed);
+        });
+        batch.forEach(payment -> queued.remove(payment.getId()));
+        log.debug("Settled {} payments", claimed.size());
+    }
+
+    // PENDING to SUBMITTING in one JDBC batch; rows another dispatcher or instance claimed first are dropped.
+    private List<Payment> claim(List<Payment> batch) {
+        Timestamp now = now();
+        int[] updated = jdbcTemplate.batchUpdate(CLAIM_SQL, rows(batch, payment -> new Object[] {now, payment.getId()}));
+        List<Payment> claimed = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (updated[i] != 0) {
+                claimed.add(batch.get(i));
+            }
+        }
+        return claimed;
+    }
+
+    private static List<Object[]> rows(List<Payment> payments, Function<Payment, Object[]> row) {
+        List<Object[]> rows = new ArrayList<>(payments.size());
+        payments.forEach(payment -> rows.add(row.apply(payment)));
+        return rows;
+    }
+
+    private static Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
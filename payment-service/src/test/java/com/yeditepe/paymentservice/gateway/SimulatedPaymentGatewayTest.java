@@ -0,0 +1,61 @@
+package com.yeditepe.paymentservice.gateway;
+
+import com.yeditepe.paymentservice.config.PaymentGatewayProperties;
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.exception.PaymentGatewayException;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulatedPaymentGatewayTest {
+
+    private final PaymentGatewayProperties.Simulator settings = new PaymentGatewayProperties.Simulator();
+    private final Payment payment = Payment.builder().transactionId("TXN-TEST").build();
+
+    @Test
+    void approvalAndErrorRatesDecideTheOutcome() {
+        settings.setApprovalRate(1.0);
+        assertTrue(new SimulatedPaymentGateway(settings).charge(payment));
+
+        settings.setApprovalRate(0.0);
+        assertFalse(new SimulatedPaymentGateway(settings).charge(payment));
+
+        settings.setErrorRate(1.0);
+        assertThrows(PaymentGatewayException.class, () -> new SimulatedPaymentGateway(settings).charge(payment));
+    }
+
+    @Test
+    void chargesBeyondTheRateLimitAreThrottled() {
+        settings.setRateLimitPerSecond(5);
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(settings);
+
+        for (int i = 0; i < 5; i++) {
+            gateway.charge(payment);
+        }
+        assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.charge(payment));
+    }
+
+    @Test
+    void latencyFollowsTheConfiguredMedianAndTail() {
+        settings.setMedianLatencyMs(20);
+        settings.setP99LatencyMs(100);
+        settings.setSeed(42);
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(settings);
+
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = gateway.latencyMillis();
+        }
+        Arrays.sort(samples);
+
+        long median = samples[samples.length / 2];
+        long p99 = samples[(int) (samples.length * 0.99)];
+        assertTrue(median >= 18 && median <= 22, "median " + median);
+        assertTrue(p99 >= 85 && p99 <= 115, "p99 " + p99);
+    }
+}
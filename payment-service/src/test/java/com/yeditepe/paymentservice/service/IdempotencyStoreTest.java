@@ -0,0 +1,57 @@
+package com.yeditepe.paymentservice.service;
+
+import com.yeditepe.paymentservice.dto.PaymentDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new SimpleMeterRegistry(), 1000, 60);
+
+    @Test
+    void concurrentRetriesChargeOnce() throws Exception {
+        AtomicInteger charges = new AtomicInteger();
+        PaymentDTO payment = new PaymentDTO();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<PaymentDTO>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return store.execute("booking-1", "1|100|CREDIT_CARD", () -> {
+                        charges.incrementAndGet();
+                        sleep(100);
+                        return payment;
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<PaymentDTO> result : results) {
+                assertSame(payment, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, charges.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.yeditepe.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yeditepe.paymentservice.config.PaymentGatewayProperties;
+import com.yeditepe.paymentservice.dto.PaymentRequestDTO;
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.entity.PaymentMethod;
+import com.yeditepe.paymentservice.exception.PaymentGatewayUnavailableException;
+import com.yeditepe.paymentservice.gateway.SimulatedPaymentGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentProcessingServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentProcessingServiceTest.class);
+
+    private final PaymentGatewayProperties properties = new PaymentGatewayProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PaymentRequestDTO request = PaymentRequestDTO.builder()
+        .bookingId(1L)
+        .amount(BigDecimal.valueOf(100))
+        .paymentMethod(PaymentMethod.CREDIT_CARD)
+        .build();
+
+    @Test
+    void requestAsBookingServiceSendsItPassesValidation() throws Exception {
+        // Body of booking-service's PaymentRequest, as BookingSagaOrchestratorTest pins it.
+        PaymentRequestDTO fromBooking = new ObjectMapper().readValue(
+            "{\"bookingId\":42,\"amount\":100.0,\"paymentMethod\":\"CREDIT_CARD\"}", PaymentRequestDTO.class);
+        properties.getSimulator().setApprovalRate(1.0);
+        PaymentProcessingService service = service();
+
+        assertTrue(service.isValid(fromBooking));
+        assertEquals(ChargeOutcome.APPROVED, service.processPayment(payment(), fromBooking));
+        service.shutdown();
+    }
+
+    @Test
+    void hungGatewayCallIsCutOffAtTheDeadline() {
+        properties.setTimeoutMs(100);
+        properties.getSimulator().setHangRate(1.0);
+        PaymentProcessingService service = service();
+
+        long start = System.nanoTime();
+        // It may still have been charged, so it is not reported as declined.
+        assertEquals(ChargeOutcome.UNKNOWN, service.processPayment(payment(), request));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1.0, meterRegistry.counter("payment.gateway.timeouts").count());
+        service.shutdown();
+    }
+
+    @Test
+    void hungBatchIsReportedUnknownRatherThanDeclined() throws Exception {
+        properties.setTimeoutMs(100);
+        properties.getSimulator().setHangRate(1.0);
+        PaymentProcessingService service = service();
+
+        assertEquals(List.of(ChargeOutcome.UNKNOWN, ChargeOutcome.UNKNOWN), service.processBatch(List.of(payment(), payment())));
+        service.shutdown();
+    }
+
+    @Test
+    void throttledGatewayIsReportedAsUnavailable() {
+        properties.getSimulator().setRateLimitPerSecond(1);
+        PaymentProcessingService service = service();
+
+        service.processPayment(payment(), request);
+        assertThrows(PaymentGatewayUnavailableException.class, () -> service.processPayment(payment(), request));
+        service.shutdown();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void throughputUnderRealisticGateway() throws Exception {
+        int payments = 5_000;
+        properties.setTimeoutMs(1_000);
+        properties.setMaxConcurrent(64);
+        properties.getSimulator().setMedianLatencyMs(80);
+        properties.getSimulator().setP99LatencyMs(400);
+        properties.getSimulator().setErrorRate(0.02);
+        properties.getSimulator().setHangRate(0.005);
+        PaymentProcessingService service = service();
+
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+        long[] latencies = new long[payments];
+        // Fewer callers than slots: a call abandoned at the deadline keeps its slot until it unwinds.
+        ExecutorService clients = Executors.newFixedThreadPool(48);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(payments);
+            for (int i = 0; i < payments; i++) {
+                int n = i;
+                futures.add(clients.submit(() -> {
+                    long began = System.nanoTime();
+                    try {
+                        if (service.processPayment(payment(), request) == ChargeOutcome.APPROVED) {
+                            approved.incrementAndGet();
+                        }
+                    } catch (PaymentGatewayUnavailableException e) {
+                        unavailable.incrementAndGet();
+                    }
+                    latencies[n] = System.nanoTime() - began;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            clients.shutdownNow();
+            service.shutdown();
+        }
+        double rate = payments / ((System.nanoTime() - start) / 1e9);
+        Arrays.sort(latencies);
+
+        log.info("{} payments/s, p50 {} ms, p99 {} ms, approved {}, timeouts {}, unavailable {}",
+            Math.round(rate), latencies[payments / 2] / 1_000_000, latencies[(int) (payments * 0.99)] / 1_000_000,
+            approved.get(), (long) meterRegistry.counter("payment.gateway.timeouts").count(), unavailable.get());
+    }
+
+    private PaymentProcessingService service() {
+        return new PaymentProcessingService(new SimulatedPaymentGateway(properties.getSimulator()), properties, meterRegistry);
+    }
+
+    private Payment payment() {
+        return Payment.builder().transactionId("TXN-" + UUID.randomUUID()).bookingId(1L).amount(BigDecimal.valueOf(100)).build();
+    }
+}
@@ -0,0 +1,209 @@
+package com.yeditepe.paymentservice.service;
+
+import com.yeditepe.paymentservice.dto.PaymentDTO;
+import com.yeditepe.paymentservice.dto.PaymentRequestDTO;
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.entity.PaymentMethod;
+import com.yeditepe.paymentservice.entity.PaymentRollup;
+import com.yeditepe.paymentservice.entity.RollupGranularity;
+import com.yeditepe.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "payment.gateway.simulator.approval-rate=1.0",
+    "payment.async.stale-after-seconds=0",
+    "payment.async.recovery-interval-ms=3600000"})
+class PaymentRollupServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentRollupServiceTest.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO transactions (id, booking_id, amount, status, transaction_id, payment_method, payment_date, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, 'CREDIT_CARD', ?, ?, ?)";
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final AtomicLong IDS = new AtomicLong(50_000_000L);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRollupService rollupService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rangeTotalsFromBucketsMatchTheTable() {
+        Random random = new Random(42);
+        insertSpread(random, 3_000, 3 * 24 * 3600);
+        rollupService.rebuild();
+
+        assertRangeMatches(ORIGIN, ORIGIN.plusDays(3));
+        assertRangeMatches(ORIGIN.plusHours(5), ORIGIN.plusDays(2).plusHours(1));
+        assertRangeMatches(ORIGIN.plusMinutes(7).plusSeconds(13), ORIGIN.plusMinutes(7).plusSeconds(40));
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime start = ORIGIN.plusSeconds(random.nextInt(3 * 24 * 3600)).plusNanos(random.nextInt(1_000_000) * 1_000L);
+            assertRangeMatches(start, start.plusSeconds(random.nextInt(2 * 24 * 3600)));
+        }
+        assertEquals(0, paymentRepository.getTotalCompletedPayments().compareTo(rollupService.getTotalCompleted()));
+
+        long count = 0;
+        for (PaymentRollup rollup : rollupService.getRollups(RollupGranularity.DAY, ORIGIN, ORIGIN.plusDays(3).minusNanos(1))) {
+            count += rollup.getCompletedCount();
+        }
+        assertEquals(completedCount(ORIGIN, ORIGIN.plusDays(3)), count);
+    }
+
+    @Test
+    void completionsAndRefundsUpdateTheBuckets() throws Exception {
+        BigDecimal before = paymentService.getTotalCompletedPayments();
+
+        PaymentDTO synchronous = paymentService.processPayment(request(1L, "40.00"));
+        PaymentDTO asynchronous = paymentService.acceptPayment(request(2L, "2.50"));
+        awaitCompleted(asynchronous.getTransactionId());
+        assertEquals(0, before.add(new BigDecimal("42.50")).compareTo(paymentService.getTotalCompletedPayments()));
+
+        paymentService.refundPayment(synchronous.getId());
+        assertEquals(0, before.add(new BigDecimal("2.50")).compareTo(paymentService.getTotalCompletedPayments()));
+        assertEquals(0, paymentRepository.getTotalCompletedPayments().compareTo(paymentService.getTotalCompletedPayments()));
+
+        LocalDateTime created = synchronous.getCreatedAt();
+        assertRangeMatches(created.minusDays(1), created.plusDays(1));
+    }
+
+    @Test
+    void concurrentCompletionsInNewBucketsDoNotExhaustTheConnectionPool() {
+        // Each payment in a minute no bucket exists for yet, and more writers than pooled connections.
+        LocalDateTime day = ORIGIN.minusYears(1);
+        List<Object[]> rows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            long id = IDS.incrementAndGet();
+            Timestamp created = Timestamp.valueOf(day.plusMinutes(i));
+            rows.add(new Object[] {id, id, BigDecimal.ONE, "PENDING", "TXN-ROLLUP-" + id, null, created, created});
+            ids.add(id);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            ExecutorService writers = Executors.newFixedThreadPool(ids.size());
+            try {
+                List<Future<Payment>> settled = new ArrayList<>();
+                for (Long id : ids) {
+                    Payment payment = paymentRepository.findById(id).orElseThrow();
+                    settled.add(writers.submit(() -> paymentService.settle(payment, "PENDING", ChargeOutcome.APPROVED)));
+                }
+                for (Future<Payment> f : settled) {
+                    f.get();
+                }
+            } finally {
+                writers.shutdownNow();
+            }
+        });
+        assertEquals(0, BigDecimal.valueOf(40).compareTo(rollupService.getTotalCompleted(day, day.plusDays(1))));
+    }
+
+    // -Dbenchmark.rows sets the table size; the rollup cost should not move with it.
+    @Test
+    @Tag("benchmark")
+    void dashboardCostDoesNotGrowWithTheTable() {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        insertSpread(new Random(7), rows, 30 * 24 * 3600);
+        rollupService.rebuild();
+        LocalDateTime start = ORIGIN.plusDays(1).plusSeconds(17);
+        LocalDateTime end = ORIGIN.plusDays(29).plusSeconds(43);
+
+        // Each call shifts the range so H2's query result cache cannot answer it.
+        long scan = time(i -> paymentRepository.getTotalCompletedPaymentsByDateRange(start.plusSeconds(i), end));
+        long rollup = time(i -> rollupService.getTotalCompleted(start.plusSeconds(i), end));
+        log.info("{} rows, 28-day range: table scan {} us, rollups {} us per query", rows, scan / 1_000, rollup / 1_000);
+        // A few hundred bucket rows against every row in the range; at this size the scan is far behind.
+        assertTrue(rollup * 10 < scan, "rollups " + rollup / 1_000 + " us vs table scan " + scan / 1_000 + " us");
+    }
+
+    private long time(IntConsumer query) {
+        for (int i = 0; i < 5; i++) {
+            query.accept(i);
+        }
+        long started = System.nanoTime();
+        for (int i = 5; i < 25; i++) {
+            query.accept(i);
+        }
+        return (System.nanoTime() - started) / 20;
+    }
+
+    private void assertRangeMatches(LocalDateTime start, LocalDateTime end) {
+        BigDecimal expected = paymentRepository.getTotalCompletedPaymentsByDateRange(start, end);
+        BigDecimal actual = rollupService.getTotalCompleted(start, end);
+        assertEquals(0, expected.compareTo(actual), start + " .. " + end + ": expected " + expected + " got " + actual);
+    }
+
+    private long completedCount(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM transactions WHERE status = 'COMPLETED' AND created_at >= ? AND created_at < ?",
+            Long.class, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    // Rows with chosen creation times go straight to the table; the rollups are rebuilt from it afterwards.
+    private void insertSpread(Random random, int rows, int seconds) {
+        String[] statuses = {"COMPLETED", "COMPLETED", "COMPLETED", "FAILED", "REFUNDED"};
+        List<Object[]> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < rows; i++) {
+            long id = IDS.incrementAndGet();
+            Timestamp created = Timestamp.valueOf(ORIGIN.plusSeconds(random.nextInt(seconds)).plusNanos(random.nextInt(1_000_000) * 1_000L));
+            String status = statuses[random.nextInt(statuses.length)];
+            batch.add(new Object[] {id, id, BigDecimal.valueOf(100 + random.nextInt(100_000), 2), status,
+                "TXN-ROLLUP-" + id, "FAILED".equals(status) ? null : created, created, created});
+            if (batch.size() == 1_000) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    private void awaitCompleted(String transactionId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if ("COMPLETED".equals(paymentService.getPaymentByTransactionId(transactionId).getStatus())) {
+                return;
+            }
+            Thread.sleep(25);
+        }
+        throw new AssertionError("Payment " + transactionId + " was not settled");
+    }
+
+    private PaymentRequestDTO request(Long bookingId, String amount) {
+        return PaymentRequestDTO.builder()
+            .bookingId(bookingId)
+            .amount(new BigDecimal(amount))
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.yeditepe.paymentservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yeditepe.paymentservice.dto.PaymentDTO;
+import com.yeditepe.paymentservice.dto.PaymentRequestDTO;
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.entity.PaymentMethod;
+import com.yeditepe.paymentservice.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "payment.reconcile.retry-after-seconds=0",
+    "payment.reconcile.interval-ms=3600000"})
+class PaymentServiceTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentReconciler reconciler;
+
+    @MockBean
+    private PaymentProcessingService paymentProcessingService;
+
+    @Test
+    void gatewayIsCalledOutsideATransactionAfterThePendingRowIsCommitted() {
+        long before = paymentRepository.count();
+        when(paymentProcessingService.processPayment(any(), any())).thenAnswer(inv -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            Payment pending = paymentRepository.findById(inv.<Payment>getArgument(0).getId()).orElseThrow();
+            assertEquals("PENDING", pending.getStatus());
+            return ChargeOutcome.APPROVED;
+        });
+
+        PaymentDTO payment = paymentService.processPayment(request(7L));
+
+        assertNotNull(payment.getId());
+        assertEquals("COMPLETED", payment.getStatus());
+        assertNotNull(payment.getPaymentDate());
+        assertEquals(before + 1, paymentRepository.count());
+    }
+
+    @Test
+    void requestWithoutAMethodIsValidatedAndStoredAsCard() throws Exception {
+        when(paymentProcessingService.processPayment(any(), argThat(r -> r.getPaymentMethod() == PaymentMethod.CREDIT_CARD)))
+            .thenReturn(ChargeOutcome.APPROVED);
+        PaymentRequestDTO noMethod = new ObjectMapper().readValue("{\"bookingId\":10,\"amount\":100.0}", PaymentRequestDTO.class);
+
+        PaymentDTO payment = paymentService.processPayment(noMethod);
+
+        assertEquals("COMPLETED", payment.getStatus());
+        assertEquals("CREDIT_CARD", payment.getPaymentMethod());
+    }
+
+    @Test
+    void declinedPaymentIsStoredAsFailed() {
+        when(paymentProcessingService.processPayment(any(), any())).thenReturn(ChargeOutcome.DECLINED);
+
+        PaymentDTO payment = paymentService.processPayment(request(8L));
+
+        assertEquals("FAILED", paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void unansweredChargeStaysUnknownUntilReconciled() {
+        when(paymentProcessingService.processPayment(any(), any())).thenReturn(ChargeOutcome.UNKNOWN);
+        BigDecimal completedBefore = paymentService.getTotalCompletedPayments();
+
+        PaymentDTO payment = paymentService.processPayment(request(9L));
+        assertEquals("UNKNOWN", payment.getStatus());
+        assertNull(payment.getPaymentDate());
+
+        // Still no answer: the payment is left for the next round.
+        when(paymentProcessingService.charge(any())).thenReturn(ChargeOutcome.UNKNOWN);
+        reconciler.reconcile();
+        assertEquals("UNKNOWN", paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+
+        // The gateway had taken the charge; the retry under the same transaction id says so.
+        when(paymentProcessingService.charge(any())).thenReturn(ChargeOutcome.APPROVED);
+        reconciler.reconcile();
+        Payment reconciled = paymentRepository.findById(payment.getId()).orElseThrow();
+        assertEquals("COMPLETED", reconciled.getStatus());
+        assertNotNull(reconciled.getPaymentDate());
+        assertEquals(0, completedBefore.add(BigDecimal.valueOf(100)).compareTo(paymentService.getTotalCompletedPayments()));
+        verify(paymentProcessingService, times(2)).charge(argThat(p -> p.getTransactionId().equals(payment.getTransactionId())));
+    }
+
+    private PaymentRequestDTO request(Long bookingId) {
+        return PaymentRequestDTO.builder()
+            .bookingId(bookingId)
+            .amount(BigDecimal.valueOf(100))
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .build();
+    }
+}
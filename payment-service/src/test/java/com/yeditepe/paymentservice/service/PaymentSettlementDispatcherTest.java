@@ -0,0 +1,170 @@
+package com.yeditepe.paymentservice.service;
+
+import com.yeditepe.paymentservice.dto.PaymentDTO;
+import com.yeditepe.paymentservice.dto.PaymentRequestDTO;
+import com.yeditepe.paymentservice.entity.Payment;
+import com.yeditepe.paymentservice.entity.PaymentMethod;
+import com.yeditepe.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+    "eureka.client.enabled=false",
+    "payment.gateway.simulator.approval-rate=1.0",
+    "payment.gateway.simulator.median-latency-ms=20",
+    "payment.async.batch-size=50",
+    "payment.async.stale-after-seconds=0",
+    "payment.async.recovery-interval-ms=3600000",
+    "payment.reconcile.retry-after-seconds=0",
+    "payment.reconcile.interval-ms=3600000"})
+class PaymentSettlementDispatcherTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentSettlementDispatcherTest.class);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentSettlementDispatcher dispatcher;
+
+    @Autowired
+    private PaymentReconciler reconciler;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void acceptedPaymentsAreSettledInBatches() throws Exception {
+        long batchesBefore = meterRegistry.summary("payment.async.batch.size").count();
+        List<String> transactions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            PaymentDTO accepted = paymentService.acceptPayment(request(1_000L + i));
+            assertEquals("PENDING", accepted.getStatus());
+            transactions.add(accepted.getTransactionId());
+        }
+
+        for (String transactionId : transactions) {
+            assertEquals("COMPLETED", awaitSettled(transactionId));
+        }
+        long batches = meterRegistry.summary("payment.async.batch.size").count() - batchesBefore;
+        assertTrue(batches < 200, "expected batched settlement, got " + batches + " batches");
+    }
+
+    @Test
+    void pendingRowsThatWereNeverQueuedAreRecovered() throws Exception {
+        Payment orphan = paymentRepository.save(Payment.builder()
+            .bookingId(77L)
+            .amount(BigDecimal.TEN)
+            .paymentMethod("CREDIT_CARD")
+            .status("PENDING")
+            .transactionId("TXN-ORPHAN")
+            .build());
+
+        dispatcher.recoverStale();
+
+        assertEquals("COMPLETED", awaitSettled(orphan.getTransactionId()));
+    }
+
+    @Test
+    void paymentClaimedByAnotherInstanceIsNotChargedAgain() throws Exception {
+        Payment payment = paymentRepository.save(Payment.builder()
+            .bookingId(78L)
+            .amount(BigDecimal.TEN)
+            .paymentMethod("CREDIT_CARD")
+            .status("PENDING")
+            .transactionId("TXN-CLAIMED")
+            .build());
+        // Another instance queued it too and got to it first, then died before settling.
+        jdbcTemplate.update("UPDATE transactions SET status = 'SUBMITTING' WHERE id = ?", payment.getId());
+
+        dispatcher.submit(payment);
+        dispatcher.recoverStale();
+        Thread.sleep(300);
+        assertEquals("SUBMITTING", paymentService.getPaymentById(payment.getId()).getStatus());
+
+        // Its outcome is unknown, so it is retried under the same transaction id rather than re-queued.
+        reconciler.reconcile();
+        assertEquals("COMPLETED", paymentService.getPaymentById(payment.getId()).getStatus());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void asyncVersusSyncThroughput() throws Exception {
+        int payments = 5_000;
+        ExecutorService clients = Executors.newFixedThreadPool(48);
+        try {
+            long start = System.nanoTime();
+            run(clients, payments, i -> paymentService.processPayment(request(10_000L + i)));
+            double syncRate = payments / ((System.nanoTime() - start) / 1e9);
+
+            start = System.nanoTime();
+            run(clients, payments, i -> paymentService.acceptPayment(request(20_000L + i)));
+            while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE status IN ('PENDING', 'SUBMITTING')", Long.class) > 0) {
+                Thread.sleep(5);
+            }
+            double asyncRate = payments / ((System.nanoTime() - start) / 1e9);
+
+            log.info("sync: {} payments/s, async (accepted and settled): {} payments/s",
+                Math.round(syncRate), Math.round(asyncRate));
+            // Sync holds a client thread per gateway round trip; async settles 50 payments per round trip.
+            assertTrue(asyncRate > 3 * syncRate,
+                "async " + Math.round(asyncRate) + " payments/s vs sync " + Math.round(syncRate));
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private void run(ExecutorService clients, int payments,
+                             IntFunction<PaymentDTO> call) throws Exception {
+        List<Future<PaymentDTO>> futures = new ArrayList<>(payments);
+        for (int i = 0; i < payments; i++) {
+            int n = i;
+            futures.add(clients.submit(() -> call.apply(n)));
+        }
+        for (Future<PaymentDTO> f : futures) {
+            f.get();
+        }
+    }
+
+    private String awaitSettled(String transactionId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        String status = paymentService.getPaymentByTransactionId(transactionId).getStatus();
+        while (("PENDING".equals(status) || "SUBMITTING".equals(status)) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            status = paymentService.getPaymentByTransactionId(transactionId).getStatus();
+        }
+        return status;
+    }
+
+    private PaymentRequestDTO request(Long bookingId) {
+        return PaymentRequestDTO.builder()
+            .bookingId(bookingId)
+            .amount(BigDecimal.valueOf(100))
+            .paymentMethod(PaymentMethod.CREDIT_CARD)
+            .build();
+    }
+}